@@ -0,0 +1,70 @@
+package xyz.supercoder.locksbenchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH counterpart of {@link Counter#benchmark(Strategy)}.
+ *
+ * The "readWrite" group mirrors the reader and writer threads of a {@link Strategy}: one
+ * thread calls {@link Counter#get()}, the other calls {@link Counter#increment()}. Use
+ * "-tg R,W" to change the number of reader and writer threads, e.g. "-tg 1,5" is the
+ * same as "-r 1 -w 5" on the command line.
+ *
+ * Every {@link Counter} runs in its own forked JVM, so the call sites stay monomorphic.
+ * The nested classes only differ in the reported figure: ops/sec or ns/op.
+ */
+@State(Scope.Group)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public abstract class CounterBenchmark {
+
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public static class Throughput extends CounterBenchmark {
+    }
+
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public static class AverageTime extends CounterBenchmark {
+    }
+
+    // all the constants of Counter when no value is given
+    @Param
+    public Counter counter;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        counter.reset();
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(1)
+    public void read(Blackhole blackhole) {
+        blackhole.consume(counter.get());
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(1)
+    public void write() {
+        counter.increment();
+    }
+}
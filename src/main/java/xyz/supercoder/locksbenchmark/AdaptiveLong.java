@@ -0,0 +1,222 @@
+package xyz.supercoder.locksbenchmark;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A long which is a single CAS cell while it is quiet, inflates to padded stripes when the CAS on the cell
+ * keeps failing, and folds the stripes back into the cell when at most one of them is written for a while.
+ *
+ * The value is the cell plus all stripes. Inflating moves nothing, folding moves the stripes into the cell:
+ * every stripe is sealed first, so a writer which finds its stripe sealed adds to the cell instead, and get()
+ * retries when a fold ran while it summed. So get() sees every add() completed before it started.
+ */
+final class AdaptiveLong {
+
+    // 16 longs = 128 bytes between two stripes, like StripedAtomicLongArray
+    private static final int PADDING = 16;
+
+    // a stripe which has been moved into the cell, no stripe ever reaches it by counting
+    private static final long SEALED = Long.MIN_VALUE;
+
+    // inflate after this many failed CAS on the cell within the window
+    private static final int INFLATE_FAILURES = 64;
+
+    private static final long INFLATE_WINDOW = 1000000;
+
+    // every writer checks the stripes each time its stripe passes a multiple of this
+    private static final int CHECK_SHIFT = 12;
+
+    // fold after this many windows in a row in which at most one stripe was written
+    private static final int QUIET_WINDOWS = 3;
+
+    private static final long FOLD_WINDOW = 10000000;
+
+    private final int stripes = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1);
+
+    private final PaddedLong cell = new PaddedLong();
+
+    private volatile AtomicLongArray values;
+
+    // odd while a fold moves the stripes into the cell
+    private volatile long folding;
+
+    // the failures are counted racily, a lost update only delays the inflation a little
+    private long failures;
+
+    private long failuresSince;
+
+    // the quiet check runs on one writer at a time
+    private final AtomicBoolean checking = new AtomicBoolean();
+
+    private long[] snapshot = new long[0];
+
+    private long snapshotTime;
+
+    private int quietWindows;
+
+    private long inflations;
+
+    private long folds;
+
+    synchronized void reset() {
+        this.cell.set(0);
+        this.values = null;
+        this.failures = 0;
+        this.inflations = 0;
+        this.folds = 0;
+    }
+
+    long get() {
+        // a fold drops the stripes only after it moved them, so without stripes the cell has it all
+        if (this.values == null) {
+            return this.cell.get();
+        }
+
+        int spins = 0;
+        while (true) {
+            long sequence = this.folding;
+            AtomicLongArray values = this.values;
+            long sum = this.cell.get();
+            for (int i = 1; values != null && i <= stripes; i++) {
+                long value = values.get(i * PADDING);
+                sum += (value != SEALED) ? value : 0;
+            }
+
+            if ((sequence & 1) == 0 && sequence == this.folding) {
+                return sum;
+            }
+
+            spins = Spin.onSpinWait(spins);
+        }
+    }
+
+    void add(long delta) {
+        while (true) {
+            AtomicLongArray values = this.values;
+            if (values == null) {
+                long current = this.cell.get();
+                if (this.cell.compareAndSet(current, current + delta)) {
+                    return;
+                }
+
+                Contention.casFailed();
+                failed();
+                continue;
+            }
+
+            int index = ((int) (Thread.currentThread().getId() & (stripes - 1)) + 1) * PADDING;
+            long current = values.get(index);
+            if (current == SEALED) {
+                // a fold is moving the stripes, the cell takes the delta at once
+                Contention.add(this.cell, delta);
+                return;
+            }
+
+            if (values.compareAndSet(index, current, current + delta)) {
+                if ((current >>> CHECK_SHIFT) != ((current + delta) >>> CHECK_SHIFT)) {
+                    checkQuiet(values);
+                }
+
+                return;
+            }
+
+            Contention.casFailed();
+        }
+    }
+
+    private void failed() {
+        long now = System.nanoTime();
+        if (now - failuresSince > INFLATE_WINDOW) {
+            failuresSince = now;
+            failures = 0;
+        }
+
+        if (++failures >= INFLATE_FAILURES) {
+            inflate();
+        }
+    }
+
+    /**
+     * Spread the writers over the stripes, if they are not spread already.
+     */
+    synchronized void inflate() {
+        if (this.values != null) {
+            return;
+        }
+
+        this.snapshot = new long[stripes];
+        this.snapshotTime = System.nanoTime();
+        this.quietWindows = 0;
+        this.inflations++;
+        this.values = new AtomicLongArray((stripes + 2) * PADDING);
+    }
+
+    // count the stripes written since the last check, the writers may have gone quiet
+    private void checkQuiet(AtomicLongArray values) {
+        if (!checking.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            long now = System.nanoTime();
+            if (values != this.values || now - snapshotTime < FOLD_WINDOW) {
+                return;
+            }
+
+            int written = 0;
+            for (int i = 0; i < stripes; i++) {
+                long value = values.get((i + 1) * PADDING);
+                written += (value != snapshot[i]) ? 1 : 0;
+                snapshot[i] = value;
+            }
+
+            snapshotTime = now;
+            quietWindows = (written <= 1) ? quietWindows + 1 : 0;
+            if (quietWindows >= QUIET_WINDOWS) {
+                fold(values);
+            }
+        } finally {
+            checking.set(false);
+        }
+    }
+
+    /**
+     * Move the stripes back into the cell, if there are any.
+     */
+    void fold() {
+        fold(this.values);
+    }
+
+    private synchronized void fold(AtomicLongArray values) {
+        if (values == null || values != this.values) {
+            return;
+        }
+
+        this.folding++;
+        long moved = 0;
+        for (int i = 1; i <= stripes; i++) {
+            moved += values.getAndSet(i * PADDING, SEALED);
+        }
+
+        Contention.add(this.cell, moved);
+        this.values = null;
+        this.folds++;
+        this.folding++;
+    }
+
+    boolean isInflated() {
+        return this.values != null;
+    }
+
+    /**
+     * How often the stripes were inflated and folded since the last reset.
+     */
+    synchronized long getInflations() {
+        return inflations;
+    }
+
+    synchronized long getFolds() {
+        return folds;
+    }
+}
@@ -0,0 +1,244 @@
+package xyz.supercoder.locksbenchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The results of an earlier run, loaded from a file written by {@link Exporter}.
+ *
+ * A result is compared with the baseline result of the same counter, threads, mode, read ratio, rate,
+ * batch size and workload. It regressed when its elapsed time (target mode) or its throughput
+ * (throughput mode) got worse by more than the tolerance, or when its p99 latency did, if both runs sampled it.
+ */
+public class Baseline {
+
+    private static final String[] LOWER_IS_BETTER = {"latency.read.p99", "latency.write.p99"};
+
+    private final Map<String, Map<String, Object>> results;
+
+    private Baseline(Map<String, Map<String, Object>> results) {
+        this.results = results;
+    }
+
+    public static Baseline load(String file) throws IOException {
+        String content = new String(Files.readAllBytes(Paths.get(file)), StandardCharsets.UTF_8);
+        List<Map<String, Object>> rows = file.toLowerCase().endsWith(".csv") ? parseCsv(content) : parseJson(content);
+
+        // the CSV file has one line per round, the first one of each result is enough
+        Map<String, Map<String, Object>> results = new LinkedHashMap<>();
+        for (Map<String, Object> row : rows) {
+            results.putIfAbsent(keyOf(row), row);
+        }
+
+        return new Baseline(results);
+    }
+
+    public int size() {
+        return results.size();
+    }
+
+    /**
+     * Compare every result with its baseline and print one line per metric.
+     *
+     * @param tolerance The tolerance of a regression, e.g. 0.1 for 10%
+     * @return The number of regressions
+     */
+    public int compare(List<Result> current, double tolerance) {
+        int regressions = 0;
+        for (Result result : current) {
+            Map<String, Object> now = Exporter.flatten(Exporter.toMap(result));
+            Map<String, Object> before = results.get(keyOf(now));
+            if (before == null) {
+                System.out.println(String.format("%s: no baseline", describe(now)));
+                continue;
+            }
+
+            if (result.getMode().isTimed()) {
+                regressions += check(now, before, "summary.readThroughput", false, tolerance);
+                regressions += check(now, before, "summary.writeThroughput", false, tolerance);
+            } else {
+                regressions += check(now, before, "summary.averageElapsed", true, tolerance);
+            }
+
+            for (String metric : LOWER_IS_BETTER) {
+                String samples = metric.substring(0, metric.lastIndexOf('.')) + ".samples";
+                if (number(now.get(samples)) > 0 && number(before.get(samples)) > 0) {
+                    regressions += check(now, before, metric, true, tolerance);
+                }
+            }
+        }
+
+        return regressions;
+    }
+
+    // print the comparison of one metric as follows:
+    // AtomicLong[r=1, w=1] summary.writeThroughput: 1000 -> 800 (-20.0%) REGRESSED
+    private static int check(Map<String, Object> now, Map<String, Object> before,
+                             String metric, boolean lowerIsBetter, double tolerance) {
+        double oldValue = number(before.get(metric));
+        double newValue = number(now.get(metric));
+        if (oldValue <= 0) {
+            return 0;
+        }
+
+        double change = (newValue - oldValue) / oldValue;
+        boolean regressed = lowerIsBetter ? change > tolerance : change < -tolerance;
+        System.out.println(String.format("%s %s: %.0f -> %.0f (%+.1f%%)%s",
+                describe(now), metric, oldValue, newValue, change * 100, regressed ? " REGRESSED" : ""));
+        return regressed ? 1 : 0;
+    }
+
+    private static String keyOf(Map<String, Object> row) {
+        String key = String.format("%s/%d/%d/%s/%s/%d", row.get("counter"),
+                (long) number(row.get("strategy.readerThreads")),
+                (long) number(row.get("strategy.writerThreads")),
+                row.get("strategy.mode"),
+                row.get("strategy.workload"),
+                (long) number(row.get("strategy.workloadSize")));
+
+        // only the mixed threads and their read ratio matter in mixed mode
+        if (isMixed(row)) {
+            key += String.format("/%d/%.4f", (long) number(row.get("strategy.mixedThreads")),
+                    number(row.get("strategy.readRatio")));
+        }
+
+        if (Mode.OpenLoop.name().equalsIgnoreCase(String.valueOf(row.get("strategy.mode")))) {
+            key += String.format("/%d", (long) number(row.get("strategy.rate")));
+        }
+
+        if (Mode.Target.name().equalsIgnoreCase(String.valueOf(row.get("strategy.mode")))) {
+            key += String.format("/%d", (long) number(row.get("strategy.targetValue")));
+        }
+
+        // the files written before batching have no batch size, they did not batch
+        long batchSize = (long) number(row.get("strategy.batchSize"));
+        if (batchSize > 1) {
+            key += String.format("/%d", batchSize);
+        }
+
+        if (Boolean.parseBoolean(String.valueOf(row.get("strategy.virtual")))) {
+            key += "/virtual";
+        }
+
+        Object fork = row.get("strategy.fork");
+        if (fork != null && !Fork.None.name().equalsIgnoreCase(fork.toString())) {
+            key += "/fork-" + fork;
+        }
+
+        return key;
+    }
+
+    private static String describe(Map<String, Object> row) {
+        if (isMixed(row)) {
+            return String.format("%s[n=%d, read ratio=%s]", row.get("counter"),
+                    (long) number(row.get("strategy.mixedThreads")), row.get("strategy.readRatio"));
+        }
+
+        return String.format("%s[r=%d, w=%d]", row.get("counter"),
+                (long) number(row.get("strategy.readerThreads")),
+                (long) number(row.get("strategy.writerThreads")));
+    }
+
+    private static boolean isMixed(Map<String, Object> row) {
+        return Mode.Mixed.name().equalsIgnoreCase(String.valueOf(row.get("strategy.mode")));
+    }
+
+    private static double number(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+
+        try {
+            return value == null ? 0 : Double.parseDouble(value.toString());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static List<Map<String, Object>> parseJson(String content) {
+        Object document = Json.parse(content);
+        if (!(document instanceof Map) || !(((Map<?, ?>) document).get("results") instanceof List)) {
+            throw new IllegalArgumentException("Not a results file, the results are missing");
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Object result : (List<?>) ((Map<?, ?>) document).get("results")) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> map = (Map<String, Object>) result;
+            rows.add(Exporter.flatten(map));
+        }
+
+        return rows;
+    }
+
+    private static List<Map<String, Object>> parseCsv(String content) {
+        List<List<String>> lines = splitCsv(content);
+        List<Map<String, Object>> rows = new ArrayList<>();
+        if (lines.isEmpty()) {
+            return rows;
+        }
+
+        List<String> columns = lines.get(0);
+        for (List<String> line : lines.subList(1, lines.size())) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int i = 0; i < columns.size() && i < line.size(); i++) {
+                // a blank field is one the result does not have, like a missing field in JSON
+                if (line.get(i).isEmpty()) {
+                    continue;
+                }
+
+                row.put(columns.get(i), line.get(i));
+            }
+
+            rows.add(row);
+        }
+
+        return rows;
+    }
+
+    static List<List<String>> splitCsv(String content) {
+        List<List<String>> lines = new ArrayList<>();
+        List<String> line = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < content.length() && content.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                line.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                line.add(field.toString());
+                field.setLength(0);
+                lines.add(line);
+                line = new ArrayList<>();
+            } else if (c != '\r') {
+                field.append(c);
+            }
+        }
+
+        if (field.length() > 0 || !line.isEmpty()) {
+            line.add(field.toString());
+            lines.add(line);
+        }
+
+        return lines;
+    }
+}
@@ -0,0 +1,54 @@
+package xyz.supercoder.locksbenchmark;
+
+/**
+ * What the rounds measure: a {@link Counter} read and written by the threads, or a {@link HandOff} of items
+ * from the writer threads to the reader threads. {@link Rounds} runs the rounds of both alike.
+ */
+interface Benchmark {
+
+    String name();
+
+    /**
+     * Start a round from scratch, called before every round while no thread runs.
+     */
+    void reset();
+
+    /**
+     * The tasks of one round, one per thread of the strategy and the readers first.
+     *
+     * @param progress The progress slot of every task, the slots are null if the round is not sampled
+     */
+    Task[] tasks(Strategy strategy, Round round, PaddedLong[] progress);
+
+    /**
+     * The fairness roles of the reader and the writer threads.
+     */
+    default String[] roles() {
+        return new String[]{"readers", "writers"};
+    }
+
+    /**
+     * Called once, right before the first measured round.
+     */
+    default void measuring() {
+        // nothing to snapshot by default
+    }
+
+    /**
+     * Run all rounds on the threads of the given harness, which may be shared by several benchmarks.
+     */
+    Result measure(Strategy strategy, Harness harness);
+
+    default Result measure(Strategy strategy) {
+        try (Harness harness = new Harness(strategy.isVirtual())) {
+            return measure(strategy, harness);
+        }
+    }
+
+    /**
+     * The benchmark of the given name in the family of the strategy.
+     */
+    static Benchmark valueOf(Strategy strategy, String name) {
+        return strategy.isHandOff() ? HandOff.valueOf(name) : Counter.valueOf(name);
+    }
+}
@@ -0,0 +1,59 @@
+package xyz.supercoder.locksbenchmark;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The queue lock of Craig, Landin and Hagersten: every waiting thread spins on the node of its predecessor,
+ * and the owner releases the lock by clearing its own node. Nobody looks at the node of the predecessor
+ * after the lock is acquired, so a thread takes it over as its node for the next acquisition.
+ */
+class CLHLock implements SpinLock {
+
+    private final AtomicReference<Node> tail = new AtomicReference<>(new Node());
+
+    private final ThreadLocal<Node> myNode = ThreadLocal.withInitial(Node::new);
+
+    private final ThreadLocal<Node> myPredecessor = new ThreadLocal<>();
+
+    @Override
+    public void lock() {
+        Node node = myNode.get();
+        node.locked = true;
+
+        Node predecessor = tail.getAndSet(node);
+        myPredecessor.set(predecessor);
+        int spins = 0;
+        while (predecessor.locked) {
+            spins = Spin.onSpinWait(spins);
+        }
+    }
+
+    @Override
+    public boolean tryLock() {
+        Node predecessor = tail.get();
+        if (predecessor.locked) {
+            return false;
+        }
+
+        Node node = myNode.get();
+        node.locked = true;
+        if (tail.compareAndSet(predecessor, node)) {
+            myPredecessor.set(predecessor);
+            return true;
+        }
+
+        node.locked = false;
+        return false;
+    }
+
+    @Override
+    public void unlock() {
+        Node node = myNode.get();
+        node.locked = false;
+        myNode.set(myPredecessor.get());
+    }
+
+    private static final class Node {
+        private volatile boolean locked;
+    }
+}
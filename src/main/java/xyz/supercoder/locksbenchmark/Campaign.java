@@ -0,0 +1,177 @@
+package xyz.supercoder.locksbenchmark;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.ParseException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+/**
+ * A matrix of runs loaded from a properties file, e.g. readers = 1 | 4 | 16, which are measured one after another.
+ *
+ * Every key is the long name of an option and its alternatives are separated by "|". The runs are all
+ * combinations of the alternatives on top of the command line, the first key varies slowest. Every result
+ * is checkpointed next to the file as soon as it is measured, so a campaign which is started again skips
+ * what it has measured before, and its output holds the old and the new results.
+ */
+public class Campaign {
+
+    // these hold for the whole campaign, only the command line can set them
+    private static final List<String> FIXED = Arrays.asList(
+            "help", "campaign", "output", "baseline", "tolerance", "instrument");
+
+    private final String file;
+
+    private final Map<String, List<String>> matrix;
+
+    private final Path checkpoints;
+
+    private Campaign(String file, Map<String, List<String>> matrix) {
+        this.file = file;
+        this.matrix = matrix;
+        this.checkpoints = Paths.get(file + ".checkpoint");
+    }
+
+    public static Campaign load(String file) throws IOException {
+        // the keys are kept in the order of the file
+        Map<String, List<String>> matrix = new LinkedHashMap<>();
+        Properties properties = new Properties() {
+            @Override
+            public synchronized Object put(Object key, Object value) {
+                matrix.put(key.toString().trim(), Arrays.stream(value.toString().split("\\|"))
+                        .map(String::trim).collect(Collectors.toList()));
+                return super.put(key, value);
+            }
+        };
+
+        try (Reader reader = Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+
+        for (String key : matrix.keySet()) {
+            Option option = Strategy.option(key);
+            if (option == null) {
+                throw new IllegalArgumentException("Unknown option in " + file + ": " + key);
+            }
+
+            if (FIXED.contains(option.getLongOpt())) {
+                throw new IllegalArgumentException(String.format(
+                        "%s can not vary in a campaign, set it on the command line", option.getLongOpt()));
+            }
+        }
+
+        return new Campaign(file, matrix);
+    }
+
+    /**
+     * The arguments of every run: the arguments of the command line without the campaign, and one alternative
+     * of every key, an option without value is set by the alternative true.
+     */
+    public List<String[]> expand(String[] args) {
+        List<String> common = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-P") || args[i].equals("--campaign")) {
+                i++;
+            } else if (!args[i].startsWith("-P") && !args[i].startsWith("--campaign=")) {
+                common.add(args[i]);
+            }
+        }
+
+        // commons-cli takes the first value of a repeated option, the matrix could never win
+        CommandLine commandLine;
+        try {
+            commandLine = Strategy.parse(common.toArray(new String[0]));
+        } catch (ParseException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+
+        for (String key : matrix.keySet()) {
+            Option option = Strategy.option(key);
+            if (commandLine.hasOption(option.getLongOpt())) {
+                throw new IllegalArgumentException(String.format(
+                        "%s is set on the command line and in %s", option.getLongOpt(), file));
+            }
+        }
+
+        List<String[]> runs = new ArrayList<>();
+        runs.add(common.toArray(new String[0]));
+        for (Map.Entry<String, List<String>> entry : matrix.entrySet()) {
+            Option option = Strategy.option(entry.getKey());
+            List<String[]> expanded = new ArrayList<>();
+            for (String[] run : runs) {
+                for (String value : entry.getValue()) {
+                    List<String> next = new ArrayList<>(Arrays.asList(run));
+                    if (option.hasArg()) {
+                        next.add("--" + option.getLongOpt() + "=" + value);
+                    } else if (Boolean.parseBoolean(value)) {
+                        next.add("--" + option.getLongOpt());
+                    }
+
+                    expanded.add(next.toArray(new String[0]));
+                }
+            }
+
+            runs = expanded;
+        }
+
+        return runs;
+    }
+
+    /**
+     * The result measured by an earlier start of this campaign, or null if there is none.
+     */
+    Result restore(Benchmark benchmark, Strategy strategy) {
+        Path checkpoint = checkpointOf(benchmark, strategy);
+        if (!Files.exists(checkpoint)) {
+            return null;
+        }
+
+        try {
+            Result result = (Result) ForkedJvm.read(checkpoint);
+            return keyOf(result.getStrategy()).equals(keyOf(strategy)) ? result : null;
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            // measure it again, e.g. after the classes changed
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    void checkpoint(Benchmark benchmark, Result result) {
+        // a crash while writing leaves a temp file behind, but never a broken checkpoint
+        Path checkpoint = checkpointOf(benchmark, result.getStrategy());
+        try {
+            Files.createDirectories(checkpoints);
+            Path temp = Files.createTempFile(checkpoints, benchmark.name() + "-", ".tmp");
+            ForkedJvm.write(temp, result);
+            Files.move(temp, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new IllegalStateException("Can not checkpoint " + benchmark.name() + " to " + checkpoint, e);
+        }
+    }
+
+    private Path checkpointOf(Benchmark benchmark, Strategy strategy) {
+        return checkpoints.resolve(String.format("%s-%08x.ser", benchmark.name(), keyOf(strategy).hashCode()));
+    }
+
+    // every parameter which affects a result, the strategy string leaves out some of them, e.g. the max cv
+    static String keyOf(Strategy strategy) {
+        Map<String, Object> key = new LinkedHashMap<>(strategy.toMap());
+        key.put("jvmArgs", strategy.getJvmArgs());
+        key.put("recordingEvents", strategy.isRecordingEvents());
+        key.put("instrumented", strategy.isInstrumented());
+        return key.toString();
+    }
+}
@@ -0,0 +1,97 @@
+package xyz.supercoder.locksbenchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A long guarded by a lock and updated by flat combining: a writer publishes its delta in a padded request
+ * slot of its own, then either waits until the delta is applied or takes the lock itself. Whoever holds the
+ * lock applies the requests of all slots in one pass, so the lock changes hands once per batch instead of once
+ * per writer, and the value and the workload stay in the cache of the combiner.
+ *
+ * A request is the delta, 0 while the slot is empty. Only its writer fills a slot and only the combiner
+ * empties it, so a slot needs no CAS.
+ */
+final class CombiningLong {
+
+    private final ReentrantLock lock = new ReentrantLock(false);
+
+    // the work of every get() and of every applied request, under the lock
+    private final Runnable read;
+
+    private final Runnable write;
+
+    // the combiner must see the slots registered by the writers during the round
+    private volatile PaddedLong[] requests = new PaddedLong[0];
+
+    private volatile ThreadLocal<PaddedLong> request = ThreadLocal.withInitial(this::register);
+
+    private long value;
+
+    CombiningLong(Runnable read, Runnable write) {
+        this.read = read;
+        this.write = write;
+    }
+
+    private synchronized PaddedLong register() {
+        PaddedLong newRequest = new PaddedLong();
+        PaddedLong[] newRequests = Arrays.copyOf(requests, requests.length + 1);
+        newRequests[requests.length] = newRequest;
+        requests = newRequests;
+        return newRequest;
+    }
+
+    synchronized void reset() {
+        // forget the slots of the threads from the last round
+        this.requests = new PaddedLong[0];
+        this.request = ThreadLocal.withInitial(this::register);
+        this.value = 0;
+    }
+
+    long get() {
+        // a reader holding the lock combines the pending requests as well
+        Contention.lock(lock);
+        try {
+            combine();
+            read.run();
+            return this.value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void add(long delta) {
+        if (delta == 0) {
+            return;
+        }
+
+        PaddedLong request = this.request.get();
+        request.set(delta);
+        int spins = 0;
+        while (request.get() != 0) {
+            if (lock.tryLock()) {
+                try {
+                    combine();
+                } finally {
+                    lock.unlock();
+                }
+
+                return;
+            }
+
+            spins = Spin.onSpinWait(spins);
+        }
+    }
+
+    // one pass over all slots, the own request of the combiner is among them
+    private void combine() {
+        for (PaddedLong request : this.requests) {
+            long delta = request.get();
+            if (delta != 0) {
+                this.value += delta;
+                write.run();
+                request.set(0);
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package xyz.supercoder.locksbenchmark;
+
+/**
+ * A reader thread of a {@link HandOff}: takes items until the round is over, and records the hand-off latency
+ * of every item stamped by its producer.
+ */
+public class Consumer implements Task {
+
+    private final HandOff handOff;
+
+    private final Round round;
+
+    private final Histogram latency;
+
+    private final boolean trackingGaps;
+
+    private final PaddedLong progress;
+
+    private long operations;
+
+    private long longestGap = -1;
+
+    private Contention contention;
+
+    Consumer(HandOff handOff,
+             Round round,
+             int samplingInterval,
+             boolean trackingGaps,
+             PaddedLong progress) {
+        this.handOff = handOff;
+        this.round = round;
+        this.latency = samplingInterval > 0 ? new Histogram() : null;
+        this.trackingGaps = trackingGaps;
+        this.progress = progress;
+    }
+
+    @Override
+    public void run() {
+        if (Contention.ENABLED) {
+            Contention.current().reset();
+        }
+
+        round.arrive();
+        try {
+            work();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (Contention.ENABLED) {
+                this.contention = Contention.current().copy();
+            }
+
+            round.finish();
+        }
+    }
+
+    private void work() throws InterruptedException {
+        long operations = 0;
+        int spins = 0;
+        Gaps gaps = trackingGaps ? new Gaps() : null;
+        try {
+            while (!round.isStopped()) {
+                long item = handOff.poll();
+                if (item == HandOff.EMPTY) {
+                    spins = Spin.onSpinWait(spins);
+                    continue;
+                }
+
+                if (item != HandOff.NO_STAMP && latency != null) {
+                    latency.record(System.nanoTime() - item);
+                }
+
+                operations++;
+                if (gaps != null) {
+                    gaps.operated();
+                }
+
+                if (progress != null) {
+                    progress.lazySet(operations);
+                }
+            }
+        } finally {
+            this.operations = operations;
+            this.longestGap = gaps != null ? gaps.finish() : -1;
+        }
+    }
+
+    @Override
+    public long getReadOperations() {
+        return operations;
+    }
+
+    @Override
+    public long getWriteOperations() {
+        return 0;
+    }
+
+    @Override
+    public Histogram getReadLatency() {
+        return latency;
+    }
+
+    @Override
+    public Histogram getWriteLatency() {
+        return null;
+    }
+
+    @Override
+    public long getLongestGap() {
+        return longestGap;
+    }
+
+    @Override
+    public Contention getContention() {
+        return contention;
+    }
+}
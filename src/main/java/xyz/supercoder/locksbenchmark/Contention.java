@@ -0,0 +1,274 @@
+package xyz.supercoder.locksbenchmark;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Why a counter is slow: its CAS retries, failed optimistic reads, and how often its lock was taken
+ * on the fast path or had to be waited for, counted by every thread on its own.
+ *
+ * It is only collected if the system property {@link #PROPERTY} is true when this class is loaded.
+ * {@link #ENABLED} is a constant then, so the JIT folds every helper below into the plain operation
+ * when it is off. When it is on, the atomic counters run a CAS loop instead of getAndAdd, so that
+ * there are retries to count, and every lock is first tried before it is waited for.
+ */
+public class Contention implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String PROPERTY = "locksbenchmark.contention";
+
+    static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+
+    private static final ThreadLocal<Contention> CURRENT = ThreadLocal.withInitial(Contention::new);
+
+    private long casRetries;
+
+    private long validateFailures;
+
+    private long fastAcquisitions;
+
+    private long slowAcquisitions;
+
+    private long waitTime;
+
+    /**
+     * The counts of the calling thread.
+     */
+    static Contention current() {
+        return CURRENT.get();
+    }
+
+    static void add(AtomicLong value, long delta) {
+        if (ENABLED) {
+            current().casAdd(value, delta);
+        } else {
+            value.addAndGet(delta);
+        }
+    }
+
+    static void add(PaddedLong value, long delta) {
+        if (ENABLED) {
+            current().casAdd(value, delta);
+        } else {
+            value.addAndGet(delta);
+        }
+    }
+
+    static void add(AtomicLongArray values, int index, long delta) {
+        if (ENABLED) {
+            current().casAdd(values, index, delta);
+        } else {
+            values.addAndGet(index, delta);
+        }
+    }
+
+    /**
+     * Count an optimistic read whose stamp was invalidated by a writer.
+     */
+    static void validateFailed() {
+        if (ENABLED) {
+            current().validateFailures++;
+        }
+    }
+
+    /**
+     * Count a CAS which lost to another writer, for the CAS loops not written here.
+     */
+    static void casFailed() {
+        if (ENABLED) {
+            current().casRetries++;
+        }
+    }
+
+    static void lock(Lock lock) {
+        if (ENABLED) {
+            current().acquire(lock);
+        } else {
+            lock.lock();
+        }
+    }
+
+    static void lock(SpinLock lock) {
+        if (ENABLED) {
+            current().acquire(lock);
+        } else {
+            lock.lock();
+        }
+    }
+
+    static long readLock(StampedLock lock) {
+        return ENABLED ? current().acquireRead(lock) : lock.readLock();
+    }
+
+    static long writeLock(StampedLock lock) {
+        return ENABLED ? current().acquireWrite(lock) : lock.writeLock();
+    }
+
+    void casAdd(AtomicLong value, long delta) {
+        long current = value.get();
+        while (!value.compareAndSet(current, current + delta)) {
+            casRetries++;
+            current = value.get();
+        }
+    }
+
+    void casAdd(PaddedLong value, long delta) {
+        long current = value.get();
+        while (!value.compareAndSet(current, current + delta)) {
+            casRetries++;
+            current = value.get();
+        }
+    }
+
+    void casAdd(AtomicLongArray values, int index, long delta) {
+        long current = values.get(index);
+        while (!values.compareAndSet(index, current, current + delta)) {
+            casRetries++;
+            current = values.get(index);
+        }
+    }
+
+    void acquire(Lock lock) {
+        // tryLock() would barge into a fair lock, the timed one keeps its fairness
+        boolean acquired;
+        try {
+            acquired = lock.tryLock(0, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+
+        if (acquired) {
+            fastAcquisitions++;
+            return;
+        }
+
+        long start = System.nanoTime();
+        lock.lock();
+        waited(start);
+    }
+
+    void acquire(SpinLock lock) {
+        if (lock.tryLock()) {
+            fastAcquisitions++;
+            return;
+        }
+
+        long start = System.nanoTime();
+        lock.lock();
+        waited(start);
+    }
+
+    long acquireRead(StampedLock lock) {
+        long stamp = lock.tryReadLock();
+        if (stamp != 0) {
+            fastAcquisitions++;
+            return stamp;
+        }
+
+        long start = System.nanoTime();
+        stamp = lock.readLock();
+        waited(start);
+        return stamp;
+    }
+
+    long acquireWrite(StampedLock lock) {
+        long stamp = lock.tryWriteLock();
+        if (stamp != 0) {
+            fastAcquisitions++;
+            return stamp;
+        }
+
+        long start = System.nanoTime();
+        stamp = lock.writeLock();
+        waited(start);
+        return stamp;
+    }
+
+    private void waited(long start) {
+        waitTime += System.nanoTime() - start;
+        slowAcquisitions++;
+    }
+
+    void merge(Contention other) {
+        this.casRetries += other.casRetries;
+        this.validateFailures += other.validateFailures;
+        this.fastAcquisitions += other.fastAcquisitions;
+        this.slowAcquisitions += other.slowAcquisitions;
+        this.waitTime += other.waitTime;
+    }
+
+    void reset() {
+        casRetries = 0;
+        validateFailures = 0;
+        fastAcquisitions = 0;
+        slowAcquisitions = 0;
+        waitTime = 0;
+    }
+
+    Contention copy() {
+        Contention copy = new Contention();
+        copy.merge(this);
+        return copy;
+    }
+
+    public long getCasRetries() {
+        return casRetries;
+    }
+
+    public long getValidateFailures() {
+        return validateFailures;
+    }
+
+    /**
+     * The lock acquisitions which succeeded on the first try.
+     */
+    public long getFastAcquisitions() {
+        return fastAcquisitions;
+    }
+
+    /**
+     * The lock acquisitions which had to wait.
+     */
+    public long getSlowAcquisitions() {
+        return slowAcquisitions;
+    }
+
+    /**
+     * The total time(ns) spent waiting for the locks.
+     */
+    public long getWaitTime() {
+        return waitTime;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("casRetries", casRetries);
+        map.put("validateFailures", validateFailures);
+        map.put("fastAcquisitions", fastAcquisitions);
+        map.put("slowAcquisitions", slowAcquisitions);
+        map.put("waitTime", waitTime);
+        return map;
+    }
+
+    /**
+     * The format is as follows:
+     * cas retries=10, validate failures=0, fast path=95.0% of 2000 acquisitions, wait(ns)=5000 (avg 50)
+     */
+    @Override
+    public String toString() {
+        long acquisitions = fastAcquisitions + slowAcquisitions;
+        return String.format("cas retries=%d, validate failures=%d, fast path=%.1f%% of %d acquisitions, "
+                        + "wait(ns)=%d (avg %d)",
+                casRetries, validateFailures,
+                acquisitions > 0 ? fastAcquisitions * 100.0 / acquisitions : 0.0, acquisitions,
+                waitTime, slowAcquisitions > 0 ? waitTime / slowAcquisitions : 0);
+    }
+}
@@ -7,21 +7,23 @@
 package xyz.supercoder.locksbenchmark;
 
 import java.util.Arrays;
-import java.util.Comparator;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.CyclicBarrier;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.*;
 import java.util.stream.Collectors;
 
-public enum Counter {
+public enum Counter implements Benchmark {
 
     Raw() {
         private long value = 0;
 
+        @Override
+        public boolean hasCriticalSection() {
+            return false;
+        }
+
         @Override
         public void reset() {
             this.value = 0;
@@ -36,11 +38,21 @@ public enum Counter {
         public void increment() {
             this.value++;
         }
+
+        @Override
+        public void add(long delta) {
+            this.value += delta;
+        }
     },
 
     Volatile() {
         private volatile long value = 0;
 
+        @Override
+        public boolean hasCriticalSection() {
+            return false;
+        }
+
         @Override
         public void reset() {
             this.value = 0;
@@ -55,11 +67,21 @@ public enum Counter {
         public void increment() {
             this.value++;
         }
+
+        @Override
+        public void add(long delta) {
+            this.value += delta;
+        }
     },
 
     AtomicLong() {
         private final AtomicLong value = new AtomicLong(0);
 
+        @Override
+        public boolean hasCriticalSection() {
+            return false;
+        }
+
         @Override
         public void reset() {
             this.value.set(0);
@@ -72,13 +94,23 @@ public enum Counter {
 
         @Override
         public void increment() {
-            this.value.incrementAndGet();
+            Contention.add(this.value, 1);
+        }
+
+        @Override
+        public void add(long delta) {
+            Contention.add(this.value, delta);
         }
     },
 
     LongAdder() {
         private final LongAdder value = new LongAdder();
 
+        @Override
+        public boolean hasCriticalSection() {
+            return false;
+        }
+
         @Override
         public void reset() {
             this.value.reset();
@@ -93,6 +125,269 @@ public enum Counter {
         public void increment() {
             this.value.increment();
         }
+
+        @Override
+        public void add(long delta) {
+            this.value.add(delta);
+        }
+    },
+
+    /**
+     * Like AtomicLong, but the value has a cache line on its own.
+     */
+    PaddedAtomicLong() {
+        private final PaddedLong value = new PaddedLong();
+
+        @Override
+        public boolean hasCriticalSection() {
+            return false;
+        }
+
+        @Override
+        public void reset() {
+            this.value.set(0);
+        }
+
+        @Override
+        public long get() {
+            return this.value.get();
+        }
+
+        @Override
+        public void increment() {
+            Contention.add(this.value, 1);
+        }
+
+        @Override
+        public void add(long delta) {
+            Contention.add(this.value, delta);
+        }
+    },
+
+    /**
+     * A fixed number of padded stripes, every writer updates the stripe chosen by its thread id.
+     */
+    StripedAtomicLongArray() {
+        // 16 longs = 128 bytes between two stripes, the first one is also away from the array header
+        private static final int PADDING = 16;
+
+        private final int stripes = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1);
+        private final AtomicLongArray values = new AtomicLongArray((stripes + 2) * PADDING);
+
+        @Override
+        public boolean hasCriticalSection() {
+            return false;
+        }
+
+        @Override
+        public void reset() {
+            for (int i = 1; i <= stripes; i++) {
+                this.values.set(i * PADDING, 0);
+            }
+        }
+
+        @Override
+        public long get() {
+            long sum = 0;
+            for (int i = 1; i <= stripes; i++) {
+                sum += this.values.get(i * PADDING);
+            }
+
+            return sum;
+        }
+
+        @Override
+        public void increment() {
+            int stripe = (int) (Thread.currentThread().getId() & (stripes - 1));
+            Contention.add(this.values, (stripe + 1) * PADDING, 1);
+        }
+
+        @Override
+        public void add(long delta) {
+            int stripe = (int) (Thread.currentThread().getId() & (stripes - 1));
+            Contention.add(this.values, (stripe + 1) * PADDING, delta);
+        }
+    },
+
+    /**
+     * A single CAS cell while it is quiet, padded stripes like StripedAtomicLongArray while the CAS keeps failing.
+     */
+    Adaptive() {
+        private final AdaptiveLong value = new AdaptiveLong();
+
+        @Override
+        public boolean hasCriticalSection() {
+            return false;
+        }
+
+        @Override
+        public void reset() {
+            this.value.reset();
+        }
+
+        @Override
+        public long get() {
+            return this.value.get();
+        }
+
+        @Override
+        public void increment() {
+            this.value.add(1);
+        }
+
+        @Override
+        public void add(long delta) {
+            this.value.add(delta);
+        }
+    },
+
+    /**
+     * Every writer owns a padded slot, so increment() needs no CAS at all.
+     */
+    ThreadLocalSlots() {
+        // the readers must see the slots registered by the writers during the round
+        private volatile PaddedLong[] slots = new PaddedLong[0];
+        private volatile ThreadLocal<PaddedLong> slot = ThreadLocal.withInitial(this::register);
+
+        private synchronized PaddedLong register() {
+            PaddedLong newSlot = new PaddedLong();
+            PaddedLong[] newSlots = Arrays.copyOf(slots, slots.length + 1);
+            newSlots[slots.length] = newSlot;
+            slots = newSlots;
+            return newSlot;
+        }
+
+        @Override
+        public boolean hasCriticalSection() {
+            return false;
+        }
+
+        @Override
+        public synchronized void reset() {
+            // forget the slots of the threads from the last round
+            this.slots = new PaddedLong[0];
+            this.slot = ThreadLocal.withInitial(this::register);
+        }
+
+        @Override
+        public long get() {
+            long sum = 0;
+            for (PaddedLong value : this.slots) {
+                sum += value.get();
+            }
+
+            return sum;
+        }
+
+        @Override
+        public void increment() {
+            // only the owner thread writes a slot
+            PaddedLong value = this.slot.get();
+            value.lazySet(value.get() + 1);
+        }
+
+        @Override
+        public void add(long delta) {
+            // only the owner thread writes a slot
+            PaddedLong value = this.slot.get();
+            value.lazySet(value.get() + delta);
+        }
+    },
+
+    /**
+     * Like ThreadLocalSlots, but the slots are adjacent longs of one array, 8 writers share a cache line.
+     */
+    PackedSlots() {
+        private final SlotArray slots = new SlotArray(1);
+
+        @Override
+        public boolean hasCriticalSection() {
+            return false;
+        }
+
+        @Override
+        public void reset() {
+            this.slots.reset();
+        }
+
+        @Override
+        public long get() {
+            return this.slots.sum();
+        }
+
+        @Override
+        public void increment() {
+            this.slots.add(1);
+        }
+
+        @Override
+        public void add(long delta) {
+            this.slots.add(delta);
+        }
+    },
+
+    /**
+     * Like PackedSlots, but a slot every 64 bytes, one cache line per writer.
+     */
+    Padded64Slots() {
+        private final SlotArray slots = new SlotArray(8);
+
+        @Override
+        public boolean hasCriticalSection() {
+            return false;
+        }
+
+        @Override
+        public void reset() {
+            this.slots.reset();
+        }
+
+        @Override
+        public long get() {
+            return this.slots.sum();
+        }
+
+        @Override
+        public void increment() {
+            this.slots.add(1);
+        }
+
+        @Override
+        public void add(long delta) {
+            this.slots.add(delta);
+        }
+    },
+
+    /**
+     * Like PackedSlots, but a slot every 128 bytes, also apart from the line the prefetcher pairs with it.
+     */
+    Padded128Slots() {
+        private final SlotArray slots = new SlotArray(16);
+
+        @Override
+        public boolean hasCriticalSection() {
+            return false;
+        }
+
+        @Override
+        public void reset() {
+            this.slots.reset();
+        }
+
+        @Override
+        public long get() {
+            return this.slots.sum();
+        }
+
+        @Override
+        public void increment() {
+            this.slots.add(1);
+        }
+
+        @Override
+        public void add(long delta) {
+            this.slots.add(delta);
+        }
     },
 
     StampedLock() {
@@ -106,8 +401,9 @@ public enum Counter {
 
         @Override
         public long get() {
-            long stamp = stampedLock.readLock();
+            long stamp = Contention.readLock(stampedLock);
             try {
+                Workload.consume(workload.checked(workload.read()));
                 return this.value;
             } finally {
                 stampedLock.unlockRead(stamp);
@@ -116,9 +412,21 @@ public enum Counter {
 
         @Override
         public void increment() {
-            long stamp = stampedLock.writeLock();
+            long stamp = Contention.writeLock(stampedLock);
             try {
                 this.value++;
+                workload.write();
+            } finally {
+                stampedLock.unlockWrite(stamp);
+            }
+        }
+
+        @Override
+        public void add(long delta) {
+            long stamp = Contention.writeLock(stampedLock);
+            try {
+                this.value += delta;
+                workload.write();
             } finally {
                 stampedLock.unlockWrite(stamp);
             }
@@ -138,27 +446,85 @@ public enum Counter {
         public long get() {
             long stamp = stampedLock.tryOptimisticRead();
             long result = this.value;
+            long read = 0;
+            try {
+                read = workload.read();
+            } catch (RuntimeException e) {
+                // the workload may see an inconsistent state, validate() fails then
+            }
+
             if (!stampedLock.validate(stamp)) {
-                stamp = stampedLock.readLock();
+                Contention.validateFailed();
+                stamp = Contention.readLock(stampedLock);
                 try {
+                    read = workload.read();
                     result = this.value;
                 } finally {
                     stampedLock.unlockRead(stamp);
                 }
             }
 
+            // only a validated read is used, so only it is checked
+            Workload.consume(workload.checked(read));
             return result;
         }
 
         @Override
         public void increment() {
-            long stamp = stampedLock.writeLock();
+            long stamp = Contention.writeLock(stampedLock);
             try {
                 this.value++;
+                workload.write();
             } finally {
                 stampedLock.unlockWrite(stamp);
             }
         }
+
+        @Override
+        public void add(long delta) {
+            long stamp = Contention.writeLock(stampedLock);
+            try {
+                this.value += delta;
+                workload.write();
+            } finally {
+                stampedLock.unlockWrite(stamp);
+            }
+        }
+    },
+
+    /**
+     * Every write publishes a new immutable snapshot of the value and the workload,
+     * get() reads the current one without any lock.
+     */
+    CopyOnWrite() {
+        private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(new Snapshot(0, Workload.NONE));
+
+        @Override
+        public void reset() {
+            // the snapshots must never write the workload of the measurement itself
+            this.snapshot.set(new Snapshot(0, workload.copy()));
+        }
+
+        @Override
+        public long get() {
+            Snapshot current = this.snapshot.get();
+            Workload.consume(current.getWorkload().checked(current.getWorkload().read()));
+            return current.getValue();
+        }
+
+        @Override
+        public void increment() {
+            add(1);
+        }
+
+        @Override
+        public void add(long delta) {
+            Snapshot current = this.snapshot.get();
+            while (!this.snapshot.compareAndSet(current, current.add(delta))) {
+                Contention.casFailed();
+                current = this.snapshot.get();
+            }
+        }
     },
 
     RWLock() {
@@ -175,8 +541,9 @@ public enum Counter {
 
         @Override
         public long get() {
-            rlock.lock();
+            Contention.lock(rlock);
             try {
+                Workload.consume(workload.checked(workload.read()));
                 return this.value;
             } finally {
                 rlock.unlock();
@@ -185,9 +552,21 @@ public enum Counter {
 
         @Override
         public void increment() {
-            wlock.lock();
+            Contention.lock(wlock);
             try {
                 this.value++;
+                workload.write();
+            } finally {
+                wlock.unlock();
+            }
+        }
+
+        @Override
+        public void add(long delta) {
+            Contention.lock(wlock);
+            try {
+                this.value += delta;
+                workload.write();
             } finally {
                 wlock.unlock();
             }
@@ -207,6 +586,7 @@ public enum Counter {
         @Override
         public long get() {
             synchronized (lock) {
+                Workload.consume(workload.checked(workload.read()));
                 return this.value;
             }
         }
@@ -215,6 +595,15 @@ public enum Counter {
         public void increment() {
             synchronized (lock) {
                 this.value++;
+                workload.write();
+            }
+        }
+
+        @Override
+        public void add(long delta) {
+            synchronized (lock) {
+                this.value += delta;
+                workload.write();
             }
         }
     },
@@ -230,8 +619,9 @@ public enum Counter {
 
         @Override
         public long get() {
-            lock.lock();
+            Contention.lock(lock);
             try {
+                Workload.consume(workload.checked(workload.read()));
                 return this.value;
             } finally {
                 lock.unlock();
@@ -240,9 +630,21 @@ public enum Counter {
 
         @Override
         public void increment() {
-            lock.lock();
+            Contention.lock(lock);
             try {
                 this.value++;
+                workload.write();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void add(long delta) {
+            Contention.lock(lock);
+            try {
+                this.value += delta;
+                workload.write();
             } finally {
                 lock.unlock();
             }
@@ -260,8 +662,9 @@ public enum Counter {
 
         @Override
         public long get() {
-            lock.lock();
+            Contention.lock(lock);
             try {
+                Workload.consume(workload.checked(workload.read()));
                 return this.value;
             } finally {
                 lock.unlock();
@@ -270,71 +673,390 @@ public enum Counter {
 
         @Override
         public void increment() {
-            lock.lock();
+            Contention.lock(lock);
             try {
                 this.value++;
+                workload.write();
             } finally {
                 lock.unlock();
             }
         }
-    };
 
-    public abstract void reset();  // maybe not thread safe
-    public abstract long get();
-    public abstract void increment();
+        @Override
+        public void add(long delta) {
+            Contention.lock(lock);
+            try {
+                this.value += delta;
+                workload.write();
+            } finally {
+                lock.unlock();
+            }
+        }
+    },
 
-    public long benchmark(Strategy strategy) {
-        System.out.println("Testing synchronization mechanism: " + this.name());
+    /**
+     * The writers publish their deltas in slots of their own, and whoever holds the lock applies all of them.
+     */
+    FlatCombining() {
+        private final CombiningLong value = new CombiningLong(
+                () -> Workload.consume(workload.checked(workload.read())), () -> workload.write());
 
-        int rounds = strategy.getRounds();
-        long[] results = new long[rounds];
-        for (int round = 0; round < rounds; round++) {
-            this.reset();
+        @Override
+        public void reset() {
+            this.value.reset();
+        }
 
-            // The main purpose of this barrier is to wait for all threads to start working,
-            // and then record the start time.
-            final long[] startTime = new long[1];
-            CyclicBarrier startWorkingBarrier = new CyclicBarrier(strategy.getTotalThreads(),
-                    () -> startTime[0] = System.currentTimeMillis());
+        @Override
+        public long get() {
+            return this.value.get();
+        }
 
-            CountDownLatch stopWorkingLatch = new CountDownLatch(1);
+        @Override
+        public void increment() {
+            this.value.add(1);
+        }
 
-            ExecutorService executorService = Executors.newFixedThreadPool(strategy.getTotalThreads());
-            for (int i = 0; i < strategy.getReaderThreads(); i++) {
-                executorService.submit(new Reader(this, startWorkingBarrier, stopWorkingLatch,
-                        strategy.getTargetValue()));
+        @Override
+        public void add(long delta) {
+            this.value.add(delta);
+        }
+    },
+
+    /**
+     * A server thread owns the value, the writers post their deltas to it and wait until they are applied.
+     */
+    Delegation() {
+        private final DelegatedLong value = new DelegatedLong();
+
+        @Override
+        public boolean hasCriticalSection() {
+            return false;
+        }
+
+        @Override
+        public void reset() {
+            this.value.reset();
+        }
+
+        @Override
+        public long get() {
+            return this.value.get();
+        }
+
+        @Override
+        public void increment() {
+            this.value.add(1);
+        }
+
+        @Override
+        public void add(long delta) {
+            this.value.add(delta);
+        }
+    },
+
+    TASLock() {
+        private final transient SpinLock lock = new TASLock();
+        private long value = 0;
+
+        @Override
+        public void reset() {
+            this.value = 0;
+        }
+
+        @Override
+        public long get() {
+            Contention.lock(lock);
+            try {
+                Workload.consume(workload.checked(workload.read()));
+                return this.value;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void increment() {
+            Contention.lock(lock);
+            try {
+                this.value++;
+                workload.write();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void add(long delta) {
+            Contention.lock(lock);
+            try {
+                this.value += delta;
+                workload.write();
+            } finally {
+                lock.unlock();
+            }
+        }
+    },
+
+    TTASLock() {
+        private final transient SpinLock lock = new TTASLock();
+        private long value = 0;
+
+        @Override
+        public void reset() {
+            this.value = 0;
+        }
+
+        @Override
+        public long get() {
+            Contention.lock(lock);
+            try {
+                Workload.consume(workload.checked(workload.read()));
+                return this.value;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void increment() {
+            Contention.lock(lock);
+            try {
+                this.value++;
+                workload.write();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void add(long delta) {
+            Contention.lock(lock);
+            try {
+                this.value += delta;
+                workload.write();
+            } finally {
+                lock.unlock();
+            }
+        }
+    },
+
+    TicketLock() {
+        private final transient SpinLock lock = new TicketLock();
+        private long value = 0;
+
+        @Override
+        public void reset() {
+            this.value = 0;
+        }
+
+        @Override
+        public long get() {
+            Contention.lock(lock);
+            try {
+                Workload.consume(workload.checked(workload.read()));
+                return this.value;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void increment() {
+            Contention.lock(lock);
+            try {
+                this.value++;
+                workload.write();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void add(long delta) {
+            Contention.lock(lock);
+            try {
+                this.value += delta;
+                workload.write();
+            } finally {
+                lock.unlock();
+            }
+        }
+    },
+
+    MCSLock() {
+        private final transient SpinLock lock = new MCSLock();
+        private long value = 0;
+
+        @Override
+        public void reset() {
+            this.value = 0;
+        }
+
+        @Override
+        public long get() {
+            Contention.lock(lock);
+            try {
+                Workload.consume(workload.checked(workload.read()));
+                return this.value;
+            } finally {
+                lock.unlock();
             }
+        }
 
-            for (int i = 0; i < strategy.getWriterThreads(); i++) {
-                executorService.submit(new Writer(this, startWorkingBarrier, stopWorkingLatch));
+        @Override
+        public void increment() {
+            Contention.lock(lock);
+            try {
+                this.value++;
+                workload.write();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void add(long delta) {
+            Contention.lock(lock);
+            try {
+                this.value += delta;
+                workload.write();
+            } finally {
+                lock.unlock();
             }
+        }
+    },
+
+    CLHLock() {
+        private final transient SpinLock lock = new CLHLock();
+        private long value = 0;
+
+        @Override
+        public void reset() {
+            this.value = 0;
+        }
 
+        @Override
+        public long get() {
+            Contention.lock(lock);
             try {
-                // waiting for the fastest thread to finish working
-                stopWorkingLatch.await();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+                Workload.consume(workload.checked(workload.read()));
+                return this.value;
+            } finally {
+                lock.unlock();
             }
+        }
 
-            results[round] = System.currentTimeMillis() - startTime[0];
+        @Override
+        public void increment() {
+            Contention.lock(lock);
+            try {
+                this.value++;
+                workload.write();
+            } finally {
+                lock.unlock();
+            }
+        }
 
-            // shutdown thread pool and spin to wait
-            executorService.shutdownNow();
-            while (!executorService.isShutdown()) {
-                Thread.yield();
+        @Override
+        public void add(long delta) {
+            Contention.lock(lock);
+            try {
+                this.value += delta;
+                workload.write();
+            } finally {
+                lock.unlock();
             }
+        }
+    };
+
+    // the work inside the critical sections, only set while measuring
+    Workload workload = Workload.NONE;
 
-            // update progress
-            ProgressBar.show((round + 1) * 100 / rounds);
+    private long warmupTornReads;
+
+    @Override
+    public abstract void reset();  // maybe not thread safe
+    public abstract long get();
+    public abstract void increment();
+
+    /**
+     * Add the delta at once: one CAS or one lock acquisition for all of it.
+     */
+    public abstract void add(long delta);
+
+    /**
+     * Whether get() and increment() hold a lock or publish a snapshot, which can also guard a {@link Workload}.
+     */
+    public boolean hasCriticalSection() {
+        return true;
+    }
+
+    public static Counter parse(String name) {
+        for (Counter counter : values()) {
+            if (counter.name().equalsIgnoreCase(name)) {
+                return counter;
+            }
         }
 
-        // remove the min and max value, and calculate the average
-        long avg = Arrays.stream(results).boxed()
-                .sorted().skip(1)                           // remove min value
-                .sorted(Comparator.reverseOrder()).skip(1)  // remove max value
-                .collect(Collectors.averagingLong(Long::valueOf)).longValue();
+        throw new IllegalArgumentException("Unknown counter: " + name + ", MUST be one of " + names());
+    }
+
+    public static String names() {
+        return Arrays.stream(values())
+                .map(counter -> counter.name().toLowerCase())
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    public long benchmark(Strategy strategy) {
+        return measure(strategy).getAverageElapsed();
+    }
+
+    /**
+     * Run all rounds on the threads of the given harness, which may be shared by several counters.
+     */
+    @Override
+    public Result measure(Strategy strategy, Harness harness) {
+        System.out.println("Testing synchronization mechanism: " + this.name());
+        this.workload = strategy.getWorkload().create(strategy.getWorkloadSize());
+
+        Result result = Rounds.measure(this, strategy, harness);
+        result.recordTornReads(workload.getTornReads() - warmupTornReads);
+        this.workload = Workload.NONE;
+
+        System.out.println(result);
+        return result;
+    }
+
+    @Override
+    public void measuring() {
+        // the torn reads of the warmup rounds are left out
+        this.warmupTornReads = workload.getTornReads();
+    }
+
+    @Override
+    public Task[] tasks(Strategy strategy, Round round, PaddedLong[] progress) {
+        // In the timed modes no reader can reach the target, all threads work until the duration is over.
+        long targetValue = strategy.getMode().isTimed() ? Long.MAX_VALUE : strategy.getTargetValue();
+        Task[] tasks = new Task[strategy.getTotalThreads()];
+        if (strategy.getMode() == Mode.Mixed) {
+            for (int i = 0; i < tasks.length; i++) {
+                tasks[i] = new Mixer(this, round, strategy.getReadRatio(), strategy.getSamplingInterval(),
+                        strategy.isTrackingGaps(), progress[i]);
+            }
+        } else {
+            for (int i = 0; i < strategy.getReaderThreads(); i++) {
+                tasks[i] = new Reader(this, round, targetValue, strategy.getSamplingInterval(),
+                        strategy.isTrackingGaps(), progress[i]);
+            }
+
+            for (int i = strategy.getReaderThreads(); i < tasks.length; i++) {
+                tasks[i] = (strategy.getMode() == Mode.OpenLoop)
+                        ? new ScheduledWriter(this, round, strategy.getRate(), progress[i])
+                        : new Writer(this, round, strategy.getSamplingInterval(), strategy.getBatchSize(),
+                        strategy.isTrackingGaps(), progress[i]);
+            }
+        }
 
-        System.out.println(String.format("average(ms): %d, details(ms): %s", avg, Arrays.toString(results)));
-        return avg;
+        return tasks;
     }
 }
@@ -0,0 +1,118 @@
+package xyz.supercoder.locksbenchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A long owned by a server thread: the writers never touch the value, they post their deltas to a mailbox
+ * of their own and the server applies the mailboxes one after another. So the value is only ever written by
+ * one thread and its cache line never moves between writers, at the price of a round trip to the server.
+ *
+ * A mailbox is a padded slot holding the delta, 0 while it is empty. Only its writer fills it and only the
+ * server empties it, so posting needs no CAS nor lock. add() returns once the server has emptied the mailbox,
+ * and the server publishes the value before, so get() sees every add() completed before it started.
+ *
+ * The server spins while there is work, and parks when it has found none for a while, so it costs nothing
+ * while other counters are measured. A writer which finds it parked unparks it.
+ */
+final class DelegatedLong implements Runnable {
+
+    // the passes over all mailboxes without a delta before the server parks
+    private static final int IDLE_PASSES = 1 << 12;
+
+    // only written by the server, and by reset() while no writer runs
+    private final PaddedLong value = new PaddedLong();
+
+    // the server must see the mailboxes registered by the writers during the round
+    private volatile PaddedLong[] mailboxes = new PaddedLong[0];
+
+    private volatile ThreadLocal<PaddedLong> mailbox = ThreadLocal.withInitial(this::register);
+
+    private volatile boolean sleeping;
+
+    private Thread server;
+
+    private synchronized PaddedLong register() {
+        PaddedLong newMailbox = new PaddedLong();
+        PaddedLong[] newMailboxes = Arrays.copyOf(mailboxes, mailboxes.length + 1);
+        newMailboxes[mailboxes.length] = newMailbox;
+        mailboxes = newMailboxes;
+        return newMailbox;
+    }
+
+    synchronized void reset() {
+        // forget the mailboxes of the threads from the last round, all of them are empty
+        this.mailboxes = new PaddedLong[0];
+        this.mailbox = ThreadLocal.withInitial(this::register);
+        this.value.set(0);
+
+        // the server is started once and then parks between the rounds
+        if (this.server == null) {
+            this.server = new Thread(this, "locksbenchmark-delegation");
+            this.server.setDaemon(true);
+            this.server.start();
+        }
+    }
+
+    long get() {
+        return this.value.get();
+    }
+
+    void add(long delta) {
+        if (delta == 0) {
+            return;
+        }
+
+        PaddedLong mailbox = this.mailbox.get();
+        mailbox.set(delta);
+        if (sleeping) {
+            LockSupport.unpark(server);
+        }
+
+        int spins = 0;
+        while (mailbox.get() != 0) {
+            spins = Spin.onSpinWait(spins);
+        }
+    }
+
+    @Override
+    public void run() {
+        int idle = 0;
+        int spins = 0;
+        while (true) {
+            if (serve()) {
+                idle = 0;
+                continue;
+            }
+
+            if (++idle < IDLE_PASSES) {
+                spins = Spin.onSpinWait(spins);
+                continue;
+            }
+
+            // a writer posts before it checks sleeping, so either it unparks or the last pass sees its delta
+            sleeping = true;
+            if (!serve()) {
+                LockSupport.park(this);
+            }
+
+            sleeping = false;
+            idle = 0;
+        }
+    }
+
+    // one pass over all mailboxes, the value is published before a mailbox is emptied
+    private boolean serve() {
+        boolean served = false;
+        for (PaddedLong mailbox : this.mailboxes) {
+            long delta = mailbox.get();
+            if (delta != 0) {
+                this.value.lazySet(this.value.get() + delta);
+                mailbox.set(0);
+                served = true;
+            }
+        }
+
+        return served;
+    }
+}
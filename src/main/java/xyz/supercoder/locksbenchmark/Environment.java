@@ -0,0 +1,23 @@
+package xyz.supercoder.locksbenchmark;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class Environment {
+
+    private Environment() {
+        // util class, can not be instanced
+    }
+
+    /**
+     * The machine and JVM the results come from.
+     */
+    public static Map<String, Object> describe() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("cpus", Runtime.getRuntime().availableProcessors());
+        map.put("arch", System.getProperty("os.arch"));
+        map.put("vendor", System.getProperty("java.vendor"));
+        map.put("javaVersion", System.getProperty("java.version"));
+        return map;
+    }
+}
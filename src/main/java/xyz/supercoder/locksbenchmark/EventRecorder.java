@@ -0,0 +1,24 @@
+package xyz.supercoder.locksbenchmark;
+
+import java.time.Instant;
+
+/**
+ * Summarize the runtime events of every measured round of a counter, see {@link FlightRecording}.
+ */
+interface EventRecorder {
+
+    void start();
+
+    /**
+     * Mark the next round, the rounds are numbered in the order they are marked.
+     */
+    void round(Instant start, Instant end);
+
+    /**
+     * Stop the recording and summarize the events of every marked round, they are empty if the
+     * recording can not be read.
+     *
+     * @param directory Where to keep the recording as name-*.jfr, or null to delete it
+     */
+    RuntimeEvents[] stop(String directory, String name);
+}
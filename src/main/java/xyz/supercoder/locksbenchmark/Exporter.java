@@ -0,0 +1,195 @@
+package xyz.supercoder.locksbenchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Write the results as JSON or CSV, so they can be loaded by dashboards or as a {@link Baseline}.
+ *
+ * The JSON document holds the environment and one object per result. The CSV file holds one
+ * line per round, and every line repeats the environment, the strategy and the statistics of
+ * its result, the column names are the dotted paths of the same fields in the JSON document.
+ * The columns are those of all results, a field which a result does not have is left blank.
+ */
+public class Exporter {
+
+    private Exporter() {
+        // util class, can not be instanced
+    }
+
+    public static void export(String file, List<Result> results) throws IOException {
+        String content = file.toLowerCase().endsWith(".csv") ? toCsv(results) : toJson(results);
+        Files.write(Paths.get(file), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String toJson(List<Result> results) {
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("environment", Environment.describe());
+        document.put("results", results.stream().map(Exporter::toMap).collect(Collectors.toList()));
+        return Json.write(document);
+    }
+
+    public static String toCsv(List<Result> results) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        Map<String, Object> environment = new LinkedHashMap<>();
+        environment.put("environment", Environment.describe());
+
+        for (Result result : results) {
+            Map<String, Object> summary = toMap(result);
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> rounds = (List<Map<String, Object>>) summary.remove("rounds");
+
+            for (Map<String, Object> round : rounds) {
+                Map<String, Object> row = new LinkedHashMap<>(flatten(environment));
+                row.putAll(flatten(summary));
+                round.forEach((key, value) -> row.put("round." + key, value));
+                rows.add(row);
+            }
+        }
+
+        if (rows.isEmpty()) {
+            return "";
+        }
+
+        StringBuilder csv = new StringBuilder();
+        // the optional columns of one result, e.g. contention or events, are blank in the rows of the others
+        Set<String> columns = new LinkedHashSet<>();
+        rows.forEach(row -> columns.addAll(row.keySet()));
+        csv.append(columns.stream().map(Exporter::csvField).collect(Collectors.joining(",")))
+                .append(System.lineSeparator());
+        for (Map<String, Object> row : rows) {
+            csv.append(columns.stream().map(column -> csvField(row.get(column))).collect(Collectors.joining(",")))
+                    .append(System.lineSeparator());
+        }
+
+        return csv.toString();
+    }
+
+    static Map<String, Object> toMap(Result result) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("counter", result.getName());
+        map.put("strategy", result.getStrategy().toMap());
+        map.put("unstable", result.isUnstable());
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("averageElapsed", result.getAverageElapsed());
+        summary.put("readThroughput", result.getReadThroughput());
+        summary.put("writeThroughput", result.getWriteThroughput());
+        if (result.getStrategy().getBatchSize() > 1) {
+            summary.put("publishInterval", result.getPublishInterval());
+        }
+        if (result.getStrategy().getWorkload() == WorkloadType.Record) {
+            summary.put("tornReads", result.getTornReads());
+        }
+        map.put("summary", summary);
+
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("elapsed", result.getElapsedStatistics().toMap());
+        statistics.put("readThroughput", result.getReadThroughputStatistics().toMap());
+        statistics.put("writeThroughput", result.getWriteThroughputStatistics().toMap());
+        map.put("statistics", statistics);
+
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("read", result.getReadLatency().toMap());
+        latency.put("write", result.getWriteLatency().toMap());
+        map.put("latency", latency);
+
+        if (Contention.ENABLED) {
+            map.put("contention", result.getContention().toMap());
+        }
+
+        Map<String, Object> fairness = new LinkedHashMap<>();
+        result.getFairness().forEach((role, roleFairness) -> fairness.put(role, roleFairness.toMap()));
+        map.put("fairness", fairness);
+
+        boolean recordingEvents = result.getStrategy().isRecordingEvents();
+        if (recordingEvents) {
+            map.put("events", result.getEvents().toMap());
+        }
+
+        if (result.getStrategy().isVirtual()) {
+            Map<String, Object> pinning = new LinkedHashMap<>();
+            pinning.put("events", result.getPinnedEvents());
+            pinning.put("time", result.getPinnedTime());
+            map.put("pinning", pinning);
+        }
+
+        long[] elapsed = result.getElapsed();
+        long[] readOperations = result.getReadOperations();
+        long[] writeOperations = result.getWriteOperations();
+        long[] readThroughputs = result.getReadThroughputs();
+        long[] writeThroughputs = result.getWriteThroughputs();
+        RuntimeEvents[] events = result.getRoundEvents();
+        long[][] series = result.getSeries();
+        List<Map<String, Object>> rounds = new ArrayList<>();
+        for (int i = 0; i < result.getRounds(); i++) {
+            Map<String, Object> round = new LinkedHashMap<>();
+            round.put("index", i);
+            round.put("elapsed", elapsed[i]);
+            round.put("readOperations", readOperations[i]);
+            round.put("writeOperations", writeOperations[i]);
+            round.put("readThroughput", readThroughputs[i]);
+            round.put("writeThroughput", writeThroughputs[i]);
+            for (Map.Entry<String, Fairness> entry : result.getFairness().entrySet()) {
+                round.put(entry.getKey() + "Operations", Arrays.stream(entry.getValue().getOperations(i))
+                        .boxed().collect(Collectors.toList()));
+            }
+
+            if (result.getStrategy().getSeriesInterval() > 0) {
+                round.put("steady", result.isSteady(i));
+                round.put("series", Arrays.stream(series[i]).boxed().collect(Collectors.toList()));
+            }
+
+            if (recordingEvents) {
+                events[i].toMap().forEach((key, value) -> round.put("events." + key, value));
+            }
+
+            rounds.add(round);
+        }
+
+        map.put("rounds", rounds);
+        return map;
+    }
+
+    /**
+     * The nested maps as one map with dotted keys, lists are left out.
+     */
+    static Map<String, Object> flatten(Map<String, ?> map) {
+        Map<String, Object> flat = new LinkedHashMap<>();
+        flatten("", map, flat);
+        return flat;
+    }
+
+    private static void flatten(String prefix, Map<String, ?> map, Map<String, Object> flat) {
+        for (Map.Entry<String, ?> entry : map.entrySet()) {
+            String key = prefix + entry.getKey();
+            Object value = entry.getValue();
+            if (value instanceof Map) {
+                @SuppressWarnings("unchecked")
+                Map<String, ?> nested = (Map<String, ?>) value;
+                flatten(key + ".", nested, flat);
+            } else if (!(value instanceof List)) {
+                flat.put(key, value);
+            }
+        }
+    }
+
+    private static String csvField(Object value) {
+        String field = value == null ? "" : value.toString();
+        if (field.contains(",") || field.contains("\"") || field.contains("\n")) {
+            return '"' + field.replace("\"", "\"\"") + '"';
+        }
+
+        return field;
+    }
+}
@@ -0,0 +1,99 @@
+package xyz.supercoder.locksbenchmark;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * How evenly the threads of one role shared the work, from the operations of every thread in every round.
+ *
+ * The min/max ratio is the operations of the slowest thread against the fastest one, and Jain's index is
+ * (sum x)^2 / (n * sum x^2), which is 1 if all threads did the same and 1/n if one thread did everything.
+ * Both are averaged over the rounds. The longest gap is the worst time a thread waited between two of its
+ * operations, or from the last one to the end of its round, in any round.
+ */
+public class Fairness implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long[][] operations;
+
+    private long longestGap = -1;
+
+    Fairness(int rounds) {
+        this.operations = new long[rounds][];
+    }
+
+    /**
+     * @param operations The operations of every thread in the round
+     * @param longestGap The longest gap(ns) of any thread in the round, or -1 if the gaps are not tracked
+     */
+    void record(int round, long[] operations, long longestGap) {
+        this.operations[round] = operations.clone();
+        this.longestGap = Math.max(this.longestGap, longestGap);
+    }
+
+    /**
+     * The operations of every thread in the given round.
+     */
+    public long[] getOperations(int round) {
+        return operations[round] == null ? new long[0] : operations[round].clone();
+    }
+
+    public double getMinMaxRatio() {
+        return average(Fairness::minMaxRatio);
+    }
+
+    public double getJainIndex() {
+        return average(Fairness::jainIndex);
+    }
+
+    /**
+     * The longest gap(ns) between two operations of a thread, -1 if the gaps are not tracked.
+     */
+    public long getLongestGap() {
+        return longestGap;
+    }
+
+    private double average(ToDoubleFunction<long[]> metric) {
+        return Arrays.stream(operations).filter(Objects::nonNull).mapToDouble(metric).average().orElse(1.0);
+    }
+
+    static double minMaxRatio(long[] values) {
+        long min = Arrays.stream(values).min().orElse(0);
+        long max = Arrays.stream(values).max().orElse(0);
+        return max > 0 ? (double) min / max : 1.0;
+    }
+
+    static double jainIndex(long[] values) {
+        double sum = 0;
+        double squares = 0;
+        for (long value : values) {
+            sum += value;
+            squares += (double) value * value;
+        }
+
+        return squares > 0 ? sum * sum / (values.length * squares) : 1.0;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("minMaxRatio", getMinMaxRatio());
+        map.put("jainIndex", getJainIndex());
+        map.put("longestGap", longestGap);
+        return map;
+    }
+
+    /**
+     * The format is as follows, the longest gap is left out if it is not tracked:
+     * min/max=0.850, jain=0.990, longest gap(ns)=120000
+     */
+    @Override
+    public String toString() {
+        String text = String.format("min/max=%.3f, jain=%.3f", getMinMaxRatio(), getJainIndex());
+        return longestGap >= 0 ? text + String.format(", longest gap(ns)=%d", longestGap) : text;
+    }
+}
@@ -0,0 +1,61 @@
+package xyz.supercoder.locksbenchmark;
+
+/**
+ * The flight recorders, which need jdk.jfr: not every java8 has it, so they live in src/main/java11 and are only
+ * built by the java11 profile, which is active on java11 or later. They are looked up by reflection like
+ * {@link VirtualThreads}, so the code still builds and runs on java8, without the recordings.
+ */
+final class FlightRecording {
+
+    private static final String PACKAGE = "xyz.supercoder.locksbenchmark.";
+
+    // the recorders are built and the JVM has a flight recorder
+    private static final boolean AVAILABLE = findFlightRecorder();
+
+    private FlightRecording() {
+        // util class, can not be instanced
+    }
+
+    static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    /**
+     * A recorder of the pinned virtual threads.
+     *
+     * @throws UnsupportedOperationException If there are no flight recordings
+     */
+    static PinningRecorder pinning() {
+        return create("JfrPinningRecorder", PinningRecorder.class);
+    }
+
+    /**
+     * A recorder of the runtime events of every round.
+     *
+     * @throws UnsupportedOperationException If there are no flight recordings
+     */
+    static EventRecorder events() {
+        return create("JfrEventRecorder", EventRecorder.class);
+    }
+
+    private static <T> T create(String name, Class<T> type) {
+        if (!AVAILABLE) {
+            throw new UnsupportedOperationException("Flight recordings need a jar built on java11 or later");
+        }
+
+        try {
+            return type.cast(Class.forName(PACKAGE + name).getDeclaredConstructor().newInstance());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Can not create " + name, e);
+        }
+    }
+
+    private static boolean findFlightRecorder() {
+        try {
+            Class.forName(PACKAGE + "JfrPinningRecorder");
+            return (Boolean) Class.forName("jdk.jfr.FlightRecorder").getMethod("isAvailable").invoke(null);
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package xyz.supercoder.locksbenchmark;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Which measurements get a JVM of their own, see {@link ForkedJvm}.
+ */
+public enum Fork {
+
+    /**
+     * Measure every counter in this JVM, one after another.
+     */
+    None,
+
+    /**
+     * Measure every counter in a new JVM, so its call sites are not shared with the counters before it.
+     */
+    Counters,
+
+    /**
+     * Like counters, but every round gets a new JVM, which runs the warmup rounds again.
+     */
+    Rounds;
+
+    public static Fork parse(String name) {
+        for (Fork fork : values()) {
+            if (fork.name().equalsIgnoreCase(name)) {
+                return fork;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown fork: " + name + ", MUST be one of " + names());
+    }
+
+    public static String names() {
+        return Arrays.stream(values())
+                .map(fork -> fork.name().toLowerCase())
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+}
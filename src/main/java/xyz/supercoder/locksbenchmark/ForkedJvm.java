@@ -0,0 +1,142 @@
+package xyz.supercoder.locksbenchmark;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measure a counter in a child JVM, so every counter starts with a clean heap and JIT profile:
+ * the get() and increment() call sites in the readers and writers only ever see this counter,
+ * and stay monomorphic and inlined, whatever counters were measured before.
+ *
+ * The child runs with the same java, classpath and JVM flags as this JVM, plus the extra flags
+ * of the strategy. The strategy goes to the child and the result comes back as serialized files.
+ */
+public class ForkedJvm {
+
+    private ForkedJvm() {
+        // util class, can not be instanced
+    }
+
+    /**
+     * Measure the counter or hand-off in one child JVM, or in one child JVM per round.
+     */
+    public static Result measure(Benchmark benchmark, Strategy strategy) {
+        if (strategy.getFork() == Fork.Counters) {
+            return fork(benchmark, strategy, true);
+        }
+
+        // the children print one round each, only the merged result is printed here
+        System.out.println("Testing synchronization mechanism: " + benchmark.name() + " (a JVM per round)");
+        Result result = new Result(benchmark.name(), strategy);
+        Strategy single = strategy.withSingleRound();
+        for (int n = 0; n < strategy.getRounds(); n++) {
+            result.recordRound(n, fork(benchmark, single, false));
+            ProgressBar.show((n + 1) * 100 / strategy.getRounds());
+        }
+
+        System.out.println(result);
+        return result;
+    }
+
+    private static Result fork(Benchmark benchmark, Strategy strategy, boolean inheritOutput) {
+        Path strategyFile = null;
+        Path resultFile = null;
+        Path outputFile = null;
+        try {
+            strategyFile = Files.createTempFile("locksbenchmark-strategy-", ".ser");
+            resultFile = Files.createTempFile("locksbenchmark-result-", ".ser");
+            write(strategyFile, strategy);
+
+            ProcessBuilder builder = new ProcessBuilder(command(strategy,
+                    strategyFile.toString(), benchmark.name(), resultFile.toString()));
+            builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+            if (inheritOutput) {
+                builder.redirectOutput(ProcessBuilder.Redirect.INHERIT);
+            } else {
+                outputFile = Files.createTempFile("locksbenchmark-output-", ".log");
+                builder.redirectOutput(outputFile.toFile());
+            }
+
+            int exitCode = builder.start().waitFor();
+            if (exitCode != 0) {
+                if (outputFile != null) {
+                    System.out.print(new String(Files.readAllBytes(outputFile), StandardCharsets.UTF_8));
+                }
+
+                throw new IllegalStateException(String.format(
+                        "The forked JVM of %s exited with %d", benchmark.name(), exitCode));
+            }
+
+            return (Result) read(resultFile);
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("Can not fork a JVM for " + benchmark.name(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the forked JVM of " + benchmark.name(), e);
+        } finally {
+            delete(strategyFile);
+            delete(resultFile);
+            delete(outputFile);
+        }
+    }
+
+    private static List<String> command(Strategy strategy, String... args) {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.addAll(strategy.getJvmArgs());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(ForkedJvm.class.getName());
+        for (String arg : args) {
+            command.add(arg);
+        }
+
+        return command;
+    }
+
+    /**
+     * The entry of the child JVM, the arguments are the strategy file, the benchmark name and the result file.
+     */
+    public static void main(String[] args) throws IOException, ClassNotFoundException {
+        Strategy strategy = (Strategy) read(Paths.get(args[0]));
+
+        // -I of the parent is a system property set at runtime, which is not among its JVM flags
+        if (strategy.isInstrumented()) {
+            System.setProperty(Contention.PROPERTY, "true");
+        }
+
+        Result result = Benchmark.valueOf(strategy, args[1]).measure(strategy);
+        write(Paths.get(args[2]), result);
+    }
+
+    static void write(Path file, Object object) throws IOException {
+        try (ObjectOutputStream output = new ObjectOutputStream(Files.newOutputStream(file))) {
+            output.writeObject(object);
+        }
+    }
+
+    static Object read(Path file) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream input = new ObjectInputStream(Files.newInputStream(file))) {
+            return input.readObject();
+        }
+    }
+
+    private static void delete(Path file) {
+        if (file == null) {
+            return;
+        }
+
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package xyz.supercoder.locksbenchmark;
+
+/**
+ * The longest gap between two operations of one thread, which is how long the thread was starved.
+ * It takes a System.nanoTime() after every operation, so it is only used when the gaps are tracked.
+ */
+class Gaps {
+
+    private long last = System.nanoTime();
+
+    private long longest;
+
+    void operated() {
+        long now = System.nanoTime();
+        if (now - last > longest) {
+            longest = now - last;
+        }
+
+        last = now;
+    }
+
+    /**
+     * The longest gap(ns), the time since the last operation included.
+     */
+    long finish() {
+        operated();
+        return longest;
+    }
+}
@@ -0,0 +1,212 @@
+package xyz.supercoder.locksbenchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Queues which hand items off from the writer threads, the producers, to the reader threads, the consumers.
+ *
+ * Every queue holds at most {@link #CAPACITY} items, so the producers can never run away from the consumers.
+ * The blocking queues park a thread for at most {@link #WAIT} us, so it sees the end of the round, the others
+ * fail at once and the thread spins. An item is a timestamp(ns) of its offer when its latency is sampled,
+ * {@link #NO_STAMP} otherwise, which the JDK caches as a boxed Long, so only the sampled items are allocated.
+ */
+public enum HandOff implements Benchmark {
+
+    ArrayBlockingQueue() {
+        private BlockingQueue<Long> queue;
+
+        @Override
+        public void reset() {
+            queue = new java.util.concurrent.ArrayBlockingQueue<>(CAPACITY);
+        }
+
+        @Override
+        boolean offer(long item) throws InterruptedException {
+            return queue.offer(item, WAIT, TimeUnit.MICROSECONDS);
+        }
+
+        @Override
+        long poll() throws InterruptedException {
+            return unbox(queue.poll(WAIT, TimeUnit.MICROSECONDS));
+        }
+    },
+
+    LinkedBlockingQueue() {
+        private BlockingQueue<Long> queue;
+
+        @Override
+        public void reset() {
+            queue = new java.util.concurrent.LinkedBlockingQueue<>(CAPACITY);
+        }
+
+        @Override
+        boolean offer(long item) throws InterruptedException {
+            return queue.offer(item, WAIT, TimeUnit.MICROSECONDS);
+        }
+
+        @Override
+        long poll() throws InterruptedException {
+            return unbox(queue.poll(WAIT, TimeUnit.MICROSECONDS));
+        }
+    },
+
+    /**
+     * A producer waits until a consumer takes its item, the queue never holds more items than producers.
+     */
+    LinkedTransferQueue() {
+        private java.util.concurrent.LinkedTransferQueue<Long> queue;
+
+        @Override
+        public void reset() {
+            queue = new java.util.concurrent.LinkedTransferQueue<>();
+        }
+
+        @Override
+        boolean offer(long item) throws InterruptedException {
+            return queue.tryTransfer(item, WAIT, TimeUnit.MICROSECONDS);
+        }
+
+        @Override
+        long poll() throws InterruptedException {
+            return unbox(queue.poll(WAIT, TimeUnit.MICROSECONDS));
+        }
+    },
+
+    /**
+     * Unbounded by itself, the free places are counted on the side, which is one more CAS per item.
+     */
+    ConcurrentLinkedQueue() {
+        private java.util.concurrent.ConcurrentLinkedQueue<Long> queue;
+
+        private final AtomicInteger free = new AtomicInteger();
+
+        @Override
+        public void reset() {
+            queue = new java.util.concurrent.ConcurrentLinkedQueue<>();
+            free.set(CAPACITY);
+        }
+
+        @Override
+        boolean offer(long item) {
+            int current = free.get();
+            while (current > 0) {
+                if (free.compareAndSet(current, current - 1)) {
+                    return queue.offer(item);
+                }
+
+                Contention.casFailed();
+                current = free.get();
+            }
+
+            return false;
+        }
+
+        @Override
+        long poll() {
+            Long item = queue.poll();
+            if (item != null) {
+                free.incrementAndGet();
+            }
+
+            return unbox(item);
+        }
+    },
+
+    /**
+     * The items are stored as primitive longs, nothing is allocated.
+     */
+    RingBuffer() {
+        private xyz.supercoder.locksbenchmark.RingBuffer buffer;
+
+        @Override
+        public void reset() {
+            buffer = new xyz.supercoder.locksbenchmark.RingBuffer(CAPACITY);
+        }
+
+        @Override
+        boolean offer(long item) {
+            return buffer.offer(item);
+        }
+
+        @Override
+        long poll() {
+            return buffer.poll();
+        }
+    };
+
+    static final int CAPACITY = 1024;
+
+    static final long WAIT = 100;
+
+    // poll() found no item within the wait
+    static final long EMPTY = xyz.supercoder.locksbenchmark.RingBuffer.EMPTY;
+
+    // an item whose latency is not sampled
+    static final long NO_STAMP = 0;
+
+    @Override
+    public abstract void reset();  // not thread safe
+
+    /**
+     * Offer an item, false if there was no room for it within the wait.
+     */
+    abstract boolean offer(long item) throws InterruptedException;
+
+    /**
+     * Take the oldest item, {@link #EMPTY} if there was none within the wait.
+     */
+    abstract long poll() throws InterruptedException;
+
+    private static long unbox(Long item) {
+        return (item != null) ? item : EMPTY;
+    }
+
+    public static HandOff parse(String name) {
+        for (HandOff handOff : values()) {
+            if (handOff.name().equalsIgnoreCase(name)) {
+                return handOff;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown hand-off: " + name + ", MUST be one of " + names());
+    }
+
+    public static String names() {
+        return Arrays.stream(values())
+                .map(handOff -> handOff.name().toLowerCase())
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    @Override
+    public Result measure(Strategy strategy, Harness harness) {
+        System.out.println("Testing hand-off: " + this.name());
+        Result result = Rounds.measure(this, strategy, harness);
+        System.out.println(result);
+        return result;
+    }
+
+    @Override
+    public Task[] tasks(Strategy strategy, Round round, PaddedLong[] progress) {
+        Task[] tasks = new Task[strategy.getTotalThreads()];
+        for (int i = 0; i < strategy.getReaderThreads(); i++) {
+            tasks[i] = new Consumer(this, round, strategy.getSamplingInterval(), strategy.isTrackingGaps(),
+                    progress[i]);
+        }
+
+        for (int i = strategy.getReaderThreads(); i < tasks.length; i++) {
+            tasks[i] = new Producer(this, round, strategy.getSamplingInterval(), strategy.isTrackingGaps(),
+                    progress[i]);
+        }
+
+        return tasks;
+    }
+
+    @Override
+    public String[] roles() {
+        return new String[]{"consumers", "producers"};
+    }
+}
@@ -0,0 +1,111 @@
+package xyz.supercoder.locksbenchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A pool of worker threads which are kept alive across rounds and counters.
+ *
+ * Between two rounds the workers are parked, so creating threads never counts into a round.
+ * The pool only grows when a round needs more threads than ever before.
+ *
+ * With virtual threads there is no pool: every task gets a new virtual thread, which is cheap,
+ * and the tasks may outnumber the carrier threads by far.
+ */
+public class Harness implements AutoCloseable {
+
+    private final List<Worker> workers = new ArrayList<>();
+
+    private final ThreadFactory virtualThreads;
+
+    private volatile boolean closed;
+
+    public Harness() {
+        this(false);
+    }
+
+    /**
+     * @param virtual Whether to run the tasks on virtual threads, see {@link VirtualThreads}
+     */
+    public Harness(boolean virtual) {
+        this.virtualThreads = virtual ? VirtualThreads.factory() : null;
+    }
+
+    /**
+     * Hand every task to a worker of its own, the tasks are expected to meet at a {@link Round}.
+     */
+    public void execute(Runnable[] tasks) {
+        if (closed) {
+            throw new IllegalStateException("The harness is closed");
+        }
+
+        if (virtualThreads != null) {
+            for (Runnable task : tasks) {
+                virtualThreads.newThread(task).start();
+            }
+
+            return;
+        }
+
+        while (workers.size() < tasks.length) {
+            Worker worker = new Worker("benchmark-worker-" + workers.size());
+            worker.start();
+            workers.add(worker);
+        }
+
+        for (int i = 0; i < tasks.length; i++) {
+            workers.get(i).assign(tasks[i]);
+        }
+    }
+
+    public int getThreads() {
+        return workers.size();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (Worker worker : workers) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    private class Worker extends Thread {
+
+        private final AtomicReference<Runnable> task = new AtomicReference<>();
+
+        Worker(String name) {
+            super(name);
+            setDaemon(true);
+        }
+
+        void assign(Runnable task) {
+            this.task.set(task);
+            LockSupport.unpark(this);
+        }
+
+        @Override
+        public void run() {
+            while (!closed) {
+                Runnable current = task.get();
+                if (current == null) {
+                    LockSupport.park(this);
+                    continue;
+                }
+
+                try {
+                    current.run();
+                } catch (Throwable e) {
+                    // the worker must survive any task, the next round would wait for it forever
+                    e.printStackTrace();
+                } finally {
+                    // the next task may have been assigned as soon as the round was finished
+                    task.compareAndSet(current, null);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package xyz.supercoder.locksbenchmark;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A log-bucketed histogram of non-negative values, e.g. latencies in nanoseconds.
+ *
+ * Every power of two is split into {@link #SUB_BUCKETS} linear buckets, so a recorded value
+ * is reported with an error of at most 1/16 (6.25%). All buckets are allocated up front,
+ * {@link #record(long)} never allocates nor locks, but it is not thread safe: every thread
+ * records into its own histogram, and they are merged after the threads have finished.
+ */
+public class Histogram implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    // values below SUB_BUCKETS have a bucket of their own, then SUB_BUCKETS buckets per power of two
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+
+    private long totalCount;
+
+    private long max;
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+
+        counts[indexOf(value)]++;
+        totalCount++;
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    public void merge(Histogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            this.counts[i] += other.counts[i];
+        }
+
+        this.totalCount += other.totalCount;
+        this.max = Math.max(this.max, other.max);
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = 0;
+        }
+
+        totalCount = 0;
+        max = 0;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * The highest value of the bucket which contains the given percentile.
+     *
+     * @param percentile This value should between [0, 100]
+     */
+    public long getPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(percentile / 100 * totalCount);
+        rank = Math.max(1, Math.min(rank, totalCount));
+
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValueOf(i), max);
+            }
+        }
+
+        return max;
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long highestValueOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int subBucket = index % SUB_BUCKETS;
+        int shift = exponent - SUB_BUCKET_BITS;
+        long lowest = (long) (SUB_BUCKETS + subBucket) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("p50", getPercentile(50));
+        map.put("p90", getPercentile(90));
+        map.put("p99", getPercentile(99));
+        map.put("p999", getPercentile(99.9));
+        map.put("max", max);
+        map.put("samples", totalCount);
+        return map;
+    }
+
+    /**
+     * The format is as follows:
+     * p50=100, p90=200, p99=300, p99.9=400, max=500, samples=1000
+     */
+    @Override
+    public String toString() {
+        return String.format("p50=%d, p90=%d, p99=%d, p99.9=%d, max=%d, samples=%d",
+                getPercentile(50), getPercentile(90), getPercentile(99), getPercentile(99.9),
+                max, totalCount);
+    }
+}
@@ -0,0 +1,300 @@
+package xyz.supercoder.locksbenchmark;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Just enough JSON for the results files: maps, lists, strings, numbers, booleans and null.
+ * Objects are parsed into a {@link LinkedHashMap}, arrays into an {@link ArrayList} and
+ * numbers into a {@link Double}.
+ */
+public class Json {
+
+    private final String text;
+
+    private int position;
+
+    private Json(String text) {
+        this.text = text;
+    }
+
+    public static String write(Object value) {
+        StringBuilder builder = new StringBuilder();
+        write(builder, value, 0);
+        return builder.toString();
+    }
+
+    public static Object parse(String text) {
+        Json json = new Json(text);
+        Object value = json.readValue();
+        json.skipWhitespace();
+        if (json.position != text.length()) {
+            throw json.error("Unexpected trailing characters");
+        }
+
+        return value;
+    }
+
+    private static void write(StringBuilder builder, Object value, int indent) {
+        if (value == null) {
+            builder.append("null");
+        } else if (value instanceof String) {
+            quote(builder, (String) value);
+        } else if (value instanceof Double || value instanceof Float) {
+            double number = ((Number) value).doubleValue();
+            builder.append(Double.isFinite(number) ? String.valueOf(number) : "null");
+        } else if (value instanceof Number || value instanceof Boolean) {
+            builder.append(value);
+        } else if (value instanceof Map) {
+            writeMap(builder, (Map<?, ?>) value, indent);
+        } else if (value instanceof Iterable) {
+            writeList(builder, (Iterable<?>) value, indent);
+        } else {
+            quote(builder, value.toString());
+        }
+    }
+
+    private static void writeMap(StringBuilder builder, Map<?, ?> map, int indent) {
+        builder.append('{');
+        Iterator<? extends Map.Entry<?, ?>> iterator = map.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<?, ?> entry = iterator.next();
+            newLine(builder, indent + 1);
+            quote(builder, String.valueOf(entry.getKey()));
+            builder.append(": ");
+            write(builder, entry.getValue(), indent + 1);
+            if (iterator.hasNext()) {
+                builder.append(',');
+            }
+        }
+
+        if (!map.isEmpty()) {
+            newLine(builder, indent);
+        }
+
+        builder.append('}');
+    }
+
+    private static void writeList(StringBuilder builder, Iterable<?> list, int indent) {
+        builder.append('[');
+        Iterator<?> iterator = list.iterator();
+        boolean empty = !iterator.hasNext();
+        while (iterator.hasNext()) {
+            newLine(builder, indent + 1);
+            write(builder, iterator.next(), indent + 1);
+            if (iterator.hasNext()) {
+                builder.append(',');
+            }
+        }
+
+        if (!empty) {
+            newLine(builder, indent);
+        }
+
+        builder.append(']');
+    }
+
+    private static void newLine(StringBuilder builder, int indent) {
+        builder.append(System.lineSeparator());
+        for (int i = 0; i < indent; i++) {
+            builder.append("  ");
+        }
+    }
+
+    private static void quote(StringBuilder builder, String value) {
+        builder.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+            }
+        }
+
+        builder.append('"');
+    }
+
+    private Object readValue() {
+        skipWhitespace();
+        if (position >= text.length()) {
+            throw error("Unexpected end");
+        }
+
+        char c = text.charAt(position);
+        switch (c) {
+            case '{':
+                return readMap();
+            case '[':
+                return readList();
+            case '"':
+                return readString();
+            case 't':
+                expect("true");
+                return Boolean.TRUE;
+            case 'f':
+                expect("false");
+                return Boolean.FALSE;
+            case 'n':
+                expect("null");
+                return null;
+            default:
+                return readNumber();
+        }
+    }
+
+    private Map<String, Object> readMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        position++;
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            return map;
+        }
+
+        while (true) {
+            skipWhitespace();
+            String key = readString();
+            skipWhitespace();
+            expect(":");
+            map.put(key, readValue());
+            skipWhitespace();
+            char c = next();
+            if (c == '}') {
+                return map;
+            } else if (c != ',') {
+                throw error("Expected ',' or '}'");
+            }
+        }
+    }
+
+    private List<Object> readList() {
+        List<Object> list = new ArrayList<>();
+        position++;
+        skipWhitespace();
+        if (peek() == ']') {
+            position++;
+            return list;
+        }
+
+        while (true) {
+            list.add(readValue());
+            skipWhitespace();
+            char c = next();
+            if (c == ']') {
+                return list;
+            } else if (c != ',') {
+                throw error("Expected ',' or ']'");
+            }
+        }
+    }
+
+    private String readString() {
+        if (next() != '"') {
+            throw error("Expected a string");
+        }
+
+        StringBuilder builder = new StringBuilder();
+        while (true) {
+            char c = next();
+            if (c == '"') {
+                return builder.toString();
+            } else if (c != '\\') {
+                builder.append(c);
+                continue;
+            }
+
+            char escaped = next();
+            switch (escaped) {
+                case 'n':
+                    builder.append('\n');
+                    break;
+                case 'r':
+                    builder.append('\r');
+                    break;
+                case 't':
+                    builder.append('\t');
+                    break;
+                case 'b':
+                    builder.append('\b');
+                    break;
+                case 'f':
+                    builder.append('\f');
+                    break;
+                case 'u':
+                    if (position + 4 > text.length()) {
+                        throw error("Bad unicode escape");
+                    }
+                    builder.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                    position += 4;
+                    break;
+                default:
+                    builder.append(escaped);
+            }
+        }
+    }
+
+    private Double readNumber() {
+        int start = position;
+        while (position < text.length() && "+-0123456789.eE".indexOf(text.charAt(position)) >= 0) {
+            position++;
+        }
+
+        if (start == position) {
+            throw error("Unexpected character '" + text.charAt(position) + "'");
+        }
+
+        return Double.valueOf(text.substring(start, position));
+    }
+
+    private void expect(String token) {
+        if (!text.startsWith(token, position)) {
+            throw error("Expected '" + token + "'");
+        }
+
+        position += token.length();
+    }
+
+    private char peek() {
+        return position < text.length() ? text.charAt(position) : 0;
+    }
+
+    private char next() {
+        if (position >= text.length()) {
+            throw error("Unexpected end");
+        }
+
+        return text.charAt(position++);
+    }
+
+    private void skipWhitespace() {
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + position);
+    }
+}
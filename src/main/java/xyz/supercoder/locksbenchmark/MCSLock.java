@@ -0,0 +1,63 @@
+package xyz.supercoder.locksbenchmark;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The queue lock of Mellor-Crummey and Scott: every waiting thread spins on a flag of its own node,
+ * and the owner hands the lock over to its successor. Every thread reuses its own node, which is
+ * free again as soon as the thread has released the lock.
+ */
+class MCSLock implements SpinLock {
+
+    private final AtomicReference<Node> tail = new AtomicReference<>();
+
+    private final ThreadLocal<Node> myNode = ThreadLocal.withInitial(Node::new);
+
+    @Override
+    public void lock() {
+        Node node = myNode.get();
+        node.next = null;
+        node.locked = true;
+
+        Node predecessor = tail.getAndSet(node);
+        if (predecessor != null) {
+            predecessor.next = node;
+            int spins = 0;
+            while (node.locked) {
+                spins = Spin.onSpinWait(spins);
+            }
+        }
+    }
+
+    @Override
+    public boolean tryLock() {
+        Node node = myNode.get();
+        node.next = null;
+        node.locked = true;
+        return tail.compareAndSet(null, node);
+    }
+
+    @Override
+    public void unlock() {
+        Node node = myNode.get();
+        Node successor = node.next;
+        if (successor == null) {
+            if (tail.compareAndSet(node, null)) {
+                return;
+            }
+
+            // a successor has swapped the tail but not linked itself yet
+            int spins = 0;
+            while ((successor = node.next) == null) {
+                spins = Spin.onSpinWait(spins);
+            }
+        }
+
+        successor.locked = false;
+    }
+
+    private static final class Node {
+        private volatile boolean locked;
+        private volatile Node next;
+    }
+}
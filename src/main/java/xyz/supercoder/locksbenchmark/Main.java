@@ -1,5 +1,6 @@
 package xyz.supercoder.locksbenchmark;
 
+import java.io.IOException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -14,20 +15,366 @@ public class Main {
             return;
         }
 
+        // Contention.ENABLED is a constant, so it must be switched on before any counter is loaded
+        if (strategy.isInstrumented()) {
+            System.setProperty(Contention.PROPERTY, "true");
+        }
+
         printBasicInfo(strategy);
 
-        Map<String, Long> resultMap = new HashMap<>();
-        for (Counter counter : Counter.values()) {
-            resultMap.put(counter.name(), counter.benchmark(strategy));
+        boolean passed = (strategy.getCampaign() != null)
+                ? campaign(strategy, args)
+                : report(strategy, run(strategy, null));
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Measure every run of the campaign, the results are written after each one, so they are never lost.
+     *
+     * @return false if a run is invalid, anything regressed or the baseline can not be loaded
+     */
+    private static boolean campaign(Strategy strategy, String[] args) {
+        Campaign campaign;
+        List<Strategy> runs = new ArrayList<>();
+        try {
+            campaign = Campaign.load(strategy.getCampaign());
+            for (String[] runArgs : campaign.expand(args)) {
+                // every run is checked before the first one starts, not hours later
+                Optional<Strategy> run = Strategy.parseStrategy(runArgs);
+                if (!run.isPresent()) {
+                    System.out.println("Invalid run: " + String.join(" ", runArgs));
+                    return false;
+                }
+
+                runs.add(run.get());
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            e.printStackTrace();
+            return false;
+        }
+
+        List<Result> results = new ArrayList<>();
+        for (int i = 0; i < runs.size(); i++) {
+            System.out.println(String.format("Run %d of %d: %s", i + 1, runs.size(), runs.get(i)));
+            results.addAll(run(runs.get(i), campaign));
+
+            // the report writes them after the last run
+            if (i + 1 < runs.size()) {
+                export(strategy.getOutput(), results);
+            }
+        }
+
+        return report(strategy, results);
+    }
+
+    /**
+     * Measure all workload sizes and steps of the strategy, the results of the campaign, if any, are reused.
+     */
+    private static List<Result> run(Strategy strategy, Campaign campaign) {
+        // one ranking per workload size, to see how it changes as the critical section grows
+        int[] workloadSizes = (strategy.getWorkload() == WorkloadType.None)
+                ? new int[]{strategy.getWorkloadSize()}
+                : strategy.getWorkloadSizes();
+
+        List<Result> results = new ArrayList<>();
+        for (int workloadSize : workloadSizes) {
+            Strategy sized = strategy.withWorkloadSize(workloadSize);
+            if (sized.getWorkload() != WorkloadType.None) {
+                System.out.println(String.format("Workload: %s(%d)",
+                        sized.getWorkload().name().toLowerCase(), workloadSize));
+            }
+
+            // and one ranking per read ratio, rate or batch size, to see where one counter overtakes another
+            List<Strategy> steps = steps(sized);
+            Map<String, String[]> cells = new LinkedHashMap<>();
+            for (int i = 0; i < steps.size(); i++) {
+                Strategy step = steps.get(i);
+                if (step.getMode() == Mode.Mixed || step.getMode() == Mode.OpenLoop || step.getBatchSize() > 1) {
+                    System.out.println(labelOf(step));
+                }
+
+                List<Result> stepResults = (step.getSweep() != Sweep.None)
+                        ? sweep(step, campaign)
+                        : rank(step, campaign);
+                for (Result result : stepResults) {
+                    cells.computeIfAbsent(result.getName(), name -> new String[steps.size()])[i] = cellOf(result);
+                }
+
+                results.addAll(stepResults);
+            }
+
+            if (steps.size() > 1 && sized.getSweep() == Sweep.None) {
+                System.out.println(stepTable(steps, cells));
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * The selected hand-offs, or the selected counters to measure, only those with a critical section can guard
+     * a workload.
+     */
+    static List<Benchmark> benchmarks(Strategy strategy) {
+        if (strategy.isHandOff()) {
+            return new ArrayList<>(strategy.getHandOffs());
+        }
+
+        return strategy.getCounters().stream()
+                .filter(counter -> strategy.getWorkload() == WorkloadType.None || counter.hasCriticalSection())
+                .collect(Collectors.toList());
+    }
+
+    // the harness stays idle when the benchmark is measured in forked JVMs
+    private static Result measure(Benchmark benchmark, Strategy strategy, Harness harness, Campaign campaign) {
+        Result result = (campaign != null) ? campaign.restore(benchmark, strategy) : null;
+        if (result != null) {
+            System.out.println("Restored from the checkpoint: " + benchmark.name());
+            System.out.println(result);
+            return result;
+        }
+
+        result = (strategy.getFork() == Fork.None)
+                ? benchmark.measure(strategy, harness)
+                : ForkedJvm.measure(benchmark, strategy);
+        if (campaign != null) {
+            campaign.checkpoint(benchmark, result);
+        }
+
+        return result;
+    }
+
+    private static List<Result> rank(Strategy strategy, Campaign campaign) {
+        // the same threads run every round of every counter
+        List<Result> results = new ArrayList<>();
+        try (Harness harness = new Harness(strategy.isVirtual())) {
+            for (Benchmark benchmark : benchmarks(strategy)) {
+                results.add(measure(benchmark, strategy, harness, campaign));
+            }
+        }
+
+        System.out.println(rank(strategy.getMode(), results));
+        return results;
+    }
+
+    /**
+     * Write the results file and compare with the baseline, if they are given.
+     *
+     * @return false if anything regressed or the baseline can not be loaded
+     */
+    private static boolean report(Strategy strategy, List<Result> results) {
+        if (strategy.getOutput() != null) {
+            export(strategy.getOutput(), results);
+        }
+
+        if (strategy.getBaseline() == null) {
+            return true;
+        }
+
+        Baseline baseline;
+        try {
+            baseline = Baseline.load(strategy.getBaseline());
+        } catch (IOException | IllegalArgumentException e) {
+            e.printStackTrace();
+            return false;
+        }
+
+        System.out.println(String.format("Comparing with %s, tolerance: %d%%",
+                strategy.getBaseline(), strategy.getTolerance()));
+        int regressions = baseline.compare(results, strategy.getTolerance() / 100.0);
+        System.out.println(regressions == 0 ? "No regression" : regressions + " regression(s)");
+        return regressions == 0;
+    }
+
+    private static void export(String output, List<Result> results) {
+        try {
+            Exporter.export(output, results);
+            System.out.println("Results written to " + output);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // sort the results and print it as follows:
+    // target mode:     AtomicLong(1ms) > LongAdder(2ms, unstable) > Volatile(3ms, pinned: 10) > ...
+    // timed modes:     LongAdder(r: 3000 ops/s, w: 2000 ops/s) > AtomicLong(r: 1000 ops/s, w: 1000 ops/s) > ...
+    static String rank(Mode mode, List<Result> results) {
+        if (mode.isTimed()) {
+            return results.stream()
+                    .sorted(Comparator.comparingLong(Result::getThroughput).reversed())
+                    .map(r -> String.format("%s(r: %d ops/s, w: %d ops/s%s)",
+                            r.getName(), r.getReadThroughput(), r.getWriteThroughput(), unstable(r) + pinned(r)))
+                    .collect(Collectors.joining(" > "));
         }
 
-        // sort the results and print it as follows:
-        // AtomicLong(1ms) > LongAdder(2ms) > Volatile(3ms) > ...
-        String result = resultMap.entrySet().stream()
-                .sorted(Map.Entry.comparingByValue())
-                .map(e -> String.format("%s(%dms)", e.getKey(), e.getValue()))
+        return results.stream()
+                .sorted(Comparator.comparingLong(Result::getAverageElapsed))
+                .map(r -> String.format("%s(%dms%s)", r.getName(), r.getAverageElapsed(), unstable(r) + pinned(r)))
                 .collect(Collectors.joining(" > "));
-        System.out.println(result);
+    }
+
+    private static String unstable(Result result) {
+        return result.isUnstable() ? ", unstable" : "";
+    }
+
+    private static String pinned(Result result) {
+        return result.getStrategy().isVirtual() ? ", pinned: " + result.getPinnedEvents() : "";
+    }
+
+    private static List<Result> sweep(Strategy strategy, Campaign campaign) {
+        Sweep sweep = strategy.getSweep();
+        int[] steps = Sweep.steps(strategy.getMaxThreads());
+        boolean mixed = strategy.getMode() == Mode.Mixed;
+
+        List<Result> results = new ArrayList<>();
+        Map<String, long[]> throughputs = new LinkedHashMap<>();
+        try (Harness harness = new Harness(strategy.isVirtual())) {
+            for (Benchmark benchmark : benchmarks(strategy)) {
+                long[] throughput = new long[steps.length];
+                for (int i = 0; i < steps.length; i++) {
+                    // the mixed threads have no role, any sweep steps all of them
+                    Strategy step = mixed ? strategy.withMixedThreads(steps[i]) : sweep.apply(strategy, steps[i]);
+                    System.out.println(step);
+                    Result result = measure(benchmark, step, harness, campaign);
+                    results.add(result);
+                    throughput[i] = mixed ? result.getThroughput() : sweep.throughputOf(result);
+                }
+
+                throughputs.put(benchmark.name(), throughput);
+            }
+        }
+
+        System.out.println(scalingTable(sweep, steps, throughputs));
+        return results;
+    }
+
+    // print the throughput of the swept threads and the efficiency against a single thread as follows:
+    // Counter          1 thread(s)       2 thread(s)       4 thread(s)
+    // AtomicLong       1000 (100%)       1800 (90%)        2000 (50%)
+    static String scalingTable(Sweep sweep, int[] steps, Map<String, long[]> throughputs) {
+        String[][] cells = new String[throughputs.size() + 1][steps.length + 1];
+        cells[0][0] = "Counter";
+        for (int i = 0; i < steps.length; i++) {
+            cells[0][i + 1] = steps[i] + " thread(s)";
+        }
+
+        int row = 1;
+        for (Map.Entry<String, long[]> entry : throughputs.entrySet()) {
+            long[] throughput = entry.getValue();
+            cells[row][0] = entry.getKey();
+            for (int i = 0; i < steps.length; i++) {
+                double efficiency = Sweep.efficiency(throughput[i], throughput[0], steps[i] / steps[0]);
+                cells[row][i + 1] = String.format("%d (%.0f%%)", throughput[i], efficiency * 100);
+            }
+
+            row++;
+        }
+
+        return table(String.format("Scaling of %s, ops/s of the swept threads (efficiency against 1 thread):",
+                sweep.name().toLowerCase()), cells);
+    }
+
+    /**
+     * One strategy per read ratio in mixed mode, one per rate in openloop mode, one per batch size otherwise.
+     */
+    static List<Strategy> steps(Strategy strategy) {
+        if (strategy.getMode() == Mode.Mixed) {
+            return Arrays.stream(strategy.getReadRatios()).mapToObj(strategy::withReadRatio)
+                    .collect(Collectors.toList());
+        } else if (strategy.getMode() == Mode.OpenLoop) {
+            return Arrays.stream(strategy.getRates()).mapToObj(strategy::withRate)
+                    .collect(Collectors.toList());
+        }
+
+        return Arrays.stream(strategy.getBatchSizes()).mapToObj(strategy::withBatchSize)
+                .collect(Collectors.toList());
+    }
+
+    private static String labelOf(Strategy step) {
+        switch (step.getMode()) {
+            case Mixed:
+                return "Read ratio: " + step.getReadRatio();
+            case OpenLoop:
+                return String.format("Rate: %d ops/s per writer", step.getRate());
+            default:
+                return String.format("Batch: %d increments per add()", step.getBatchSize());
+        }
+    }
+
+    // the throughput of the mixed threads, p50/p99 latency(ns) and the share of the offered rate achieved,
+    // or the write throughput and the publish interval(ns) of the batches
+    private static String cellOf(Result result) {
+        Strategy strategy = result.getStrategy();
+        switch (strategy.getMode()) {
+            case Mixed:
+                return String.valueOf(result.getThroughput());
+            case OpenLoop:
+                double offered = (double) strategy.getRate() * strategy.getWriterThreads();
+                return String.format("%d/%d (%.0f%%)",
+                        result.getWriteLatency().getPercentile(50), result.getWriteLatency().getPercentile(99),
+                        result.getWriteThroughput() * 100 / offered);
+            default:
+                return String.format("%d (%d)", result.getWriteThroughput(), result.getPublishInterval());
+        }
+    }
+
+    // print one column per step as follows:
+    // mixed mode:    Counter     0.5           0.9           0.99
+    //                AtomicLong  1000          1800          2000
+    // openloop mode: Counter     1000          10000         100000
+    //                AtomicLong  50/80 (100%)  50/90 (100%)  900/50000 (85%)
+    // other modes:   Counter     1             16            256
+    //                AtomicLong  1000 (1000)   9000 (1777)   20000 (12800)
+    static String stepTable(List<Strategy> steps, Map<String, String[]> cellsByCounter) {
+        Mode mode = steps.get(0).getMode();
+        String[][] cells = new String[cellsByCounter.size() + 1][steps.size() + 1];
+        cells[0][0] = "Counter";
+        for (int i = 0; i < steps.size(); i++) {
+            Strategy step = steps.get(i);
+            cells[0][i + 1] = (mode == Mode.Mixed) ? String.valueOf(step.getReadRatio())
+                    : String.valueOf((mode == Mode.OpenLoop) ? step.getRate() : step.getBatchSize());
+        }
+
+        int row = 1;
+        for (Map.Entry<String, String[]> entry : cellsByCounter.entrySet()) {
+            cells[row][0] = entry.getKey();
+            System.arraycopy(entry.getValue(), 0, cells[row], 1, steps.size());
+            row++;
+        }
+
+        switch (mode) {
+            case Mixed:
+                return table("Throughput of the mixed threads, ops/s by read ratio:", cells);
+            case OpenLoop:
+                return table("increment() latency(ns) from the schedule p50/p99 (achieved share of the rate), "
+                        + "by rate(ops/s per writer):", cells);
+            default:
+                return table("Write throughput, ops/s (publish interval(ns) per writer) by batch size:", cells);
+        }
+    }
+
+    // the title, then the cells left aligned in columns
+    private static String table(String title, String[][] cells) {
+        int[] widths = new int[cells[0].length];
+        for (String[] line : cells) {
+            for (int i = 0; i < line.length; i++) {
+                widths[i] = Math.max(widths[i], line[i].length());
+            }
+        }
+
+        StringBuilder table = new StringBuilder(title);
+        for (String[] line : cells) {
+            StringBuilder formatted = new StringBuilder();
+            for (int i = 0; i < line.length; i++) {
+                formatted.append(String.format("%-" + (widths[i] + 2) + "s", line[i]));
+            }
+
+            table.append(System.lineSeparator()).append(formatted.toString().trim());
+        }
+
+        return table.toString();
     }
 
     private static void printBasicInfo(Strategy strategy) {
@@ -0,0 +1,164 @@
+package xyz.supercoder.locksbenchmark;
+
+/**
+ * A thread which picks get() or increment() at random before every operation,
+ * so that get() makes up the read ratio of all its operations.
+ */
+public class Mixer implements Task {
+
+    // the random numbers are compared in 53 bits, like the mantissa of the read ratio
+    private static final int RANDOM_BITS = 53;
+
+    private final Counter counter;
+
+    private final Round round;
+
+    private final long readThreshold;
+
+    private final int samplingInterval;
+
+    private final Histogram readLatency;
+
+    private final Histogram writeLatency;
+
+    private final boolean trackingGaps;
+
+    private final PaddedLong progress;
+
+    private long readOperations;
+
+    private long writeOperations;
+
+    private long longestGap = -1;
+
+    private Contention contention;
+
+    Mixer(Counter counter,
+          Round round,
+          double readRatio,
+          int samplingInterval,
+          boolean trackingGaps,
+          PaddedLong progress) {
+        this.counter = counter;
+        this.round = round;
+        this.readThreshold = (long) (readRatio * (1L << RANDOM_BITS));
+
+        this.samplingInterval = samplingInterval;
+        this.readLatency = samplingInterval > 0 ? new Histogram() : null;
+        this.writeLatency = samplingInterval > 0 ? new Histogram() : null;
+        this.trackingGaps = trackingGaps;
+        this.progress = progress;
+    }
+
+    @Override
+    public void run() {
+        if (Contention.ENABLED) {
+            Contention.current().reset();
+        }
+
+        round.arrive();
+        try {
+            work();
+        } finally {
+            if (Contention.ENABLED) {
+                this.contention = Contention.current().copy();
+            }
+
+            round.finish();
+        }
+    }
+
+    private void work() {
+        // count in local variables, the threads must not share a cache line while working
+        long readOperations = 0;
+        long writeOperations = 0;
+        long sum = 0;
+        long random = seed();
+        long untilSample = firstSample();
+        Gaps gaps = trackingGaps ? new Gaps() : null;
+        while (!round.isStopped()) {
+            // xorshift64, no allocation and no shared state unlike Random or ThreadLocalRandom.current()
+            random ^= random << 13;
+            random ^= random >>> 7;
+            random ^= random << 17;
+            boolean read = (random >>> (Long.SIZE - RANDOM_BITS)) < readThreshold;
+
+            if (--untilSample == 0) {
+                untilSample = samplingInterval;
+                long start = System.nanoTime();
+                if (read) {
+                    sum += counter.get();
+                    readLatency.record(System.nanoTime() - start);
+                } else {
+                    counter.increment();
+                    writeLatency.record(System.nanoTime() - start);
+                }
+            } else if (read) {
+                sum += counter.get();
+            } else {
+                counter.increment();
+            }
+
+            if (read) {
+                readOperations++;
+            } else {
+                writeOperations++;
+            }
+
+            if (gaps != null) {
+                gaps.operated();
+            }
+
+            if (progress != null) {
+                progress.lazySet(readOperations + writeOperations);
+            }
+        }
+
+        // the values read must be used, or the JIT may drop the get() calls
+        Workload.consume(sum);
+        this.readOperations = readOperations;
+        this.writeOperations = writeOperations;
+        this.longestGap = gaps != null ? gaps.finish() : -1;
+    }
+
+    @Override
+    public long getReadOperations() {
+        return readOperations;
+    }
+
+    @Override
+    public long getWriteOperations() {
+        return writeOperations;
+    }
+
+    @Override
+    public Histogram getReadLatency() {
+        return readLatency;
+    }
+
+    @Override
+    public Histogram getWriteLatency() {
+        return writeLatency;
+    }
+
+    @Override
+    public long getLongestGap() {
+        return longestGap;
+    }
+
+    @Override
+    public Contention getContention() {
+        return contention;
+    }
+
+    // every thread gets its own sequence, xorshift must not start from 0
+    private static long seed() {
+        long seed = (Thread.currentThread().getId() + 1) * 0x9E3779B97F4A7C15L ^ System.nanoTime();
+        return seed != 0 ? seed : 0x9E3779B97F4A7C15L;
+    }
+
+    // without sampling, the countdown can never reach 0
+    private long firstSample() {
+        return samplingInterval > 0 ? samplingInterval : Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,51 @@
+package xyz.supercoder.locksbenchmark;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+public enum Mode {
+
+    /**
+     * Measure how long it takes until the first reader sees the target value.
+     */
+    Target,
+
+    /**
+     * Run all threads for a fixed duration and count the operations of each thread.
+     */
+    Throughput,
+
+    /**
+     * Run uniform threads for a fixed duration, each of them calls get() or increment() at the read ratio.
+     */
+    Mixed,
+
+    /**
+     * Like throughput, but every writer calls increment() on a fixed schedule at the rate,
+     * and the latency is taken from the scheduled start of each call.
+     */
+    OpenLoop;
+
+    /**
+     * Whether the threads run for the duration, instead of until the target value is reached.
+     */
+    public boolean isTimed() {
+        return this != Target;
+    }
+
+    public static Mode parse(String name) {
+        for (Mode mode : values()) {
+            if (mode.name().equalsIgnoreCase(name)) {
+                return mode;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown mode: " + name + ", MUST be one of " + names());
+    }
+
+    public static String names() {
+        return Arrays.stream(values())
+                .map(mode -> mode.name().toLowerCase())
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+}
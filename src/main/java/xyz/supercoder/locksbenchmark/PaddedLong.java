@@ -0,0 +1,53 @@
+package xyz.supercoder.locksbenchmark;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * A volatile long which occupies 128 bytes on its own, so it never shares a cache line
+ * (nor the adjacent line fetched by the spatial prefetcher) with any other hot field.
+ *
+ * The JVM may reorder the fields of one class, but never moves the fields of a super class
+ * behind the fields of a sub class, so the padding is spread over the class hierarchy.
+ */
+public class PaddedLong extends PaddedLongValue {
+
+    private static final AtomicLongFieldUpdater<PaddedLongValue> UPDATER =
+            AtomicLongFieldUpdater.newUpdater(PaddedLongValue.class, "value");
+
+    protected long p16, p17, p18, p19, p20, p21, p22, p23, p24, p25, p26, p27, p28, p29, p30;
+
+    public long get() {
+        return value;
+    }
+
+    public void set(long newValue) {
+        value = newValue;
+    }
+
+    /**
+     * Only safe when a single thread writes this value.
+     */
+    public void lazySet(long newValue) {
+        UPDATER.lazySet(this, newValue);
+    }
+
+    public long incrementAndGet() {
+        return UPDATER.incrementAndGet(this);
+    }
+
+    public long addAndGet(long delta) {
+        return UPDATER.addAndGet(this, delta);
+    }
+
+    public boolean compareAndSet(long expect, long update) {
+        return UPDATER.compareAndSet(this, expect, update);
+    }
+}
+
+abstract class PaddedLongLhs {
+    protected long p01, p02, p03, p04, p05, p06, p07, p08, p09, p10, p11, p12, p13, p14, p15;
+}
+
+abstract class PaddedLongValue extends PaddedLongLhs {
+    protected volatile long value;
+}
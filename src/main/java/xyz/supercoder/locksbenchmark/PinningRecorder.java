@@ -0,0 +1,21 @@
+package xyz.supercoder.locksbenchmark;
+
+/**
+ * Count how often a virtual thread pinned its carrier over the measured rounds, see {@link FlightRecording}.
+ */
+interface PinningRecorder {
+
+    void start();
+
+    /**
+     * Stop the recording and count its events, the counts are 0 if the recording can not be read.
+     */
+    void stop();
+
+    long getEvents();
+
+    /**
+     * The total time(ns) of the pinned events.
+     */
+    long getPinnedTime();
+}
@@ -0,0 +1,123 @@
+package xyz.supercoder.locksbenchmark;
+
+/**
+ * A writer thread of a {@link HandOff}: offers items until the round is over, every sampled item carries
+ * the time of its offer, so its consumer can take the hand-off latency.
+ */
+public class Producer implements Task {
+
+    private final HandOff handOff;
+
+    private final Round round;
+
+    private final int samplingInterval;
+
+    private final boolean trackingGaps;
+
+    private final PaddedLong progress;
+
+    private long operations;
+
+    private long longestGap = -1;
+
+    private Contention contention;
+
+    Producer(HandOff handOff,
+             Round round,
+             int samplingInterval,
+             boolean trackingGaps,
+             PaddedLong progress) {
+        this.handOff = handOff;
+        this.round = round;
+        this.samplingInterval = samplingInterval;
+        this.trackingGaps = trackingGaps;
+        this.progress = progress;
+    }
+
+    @Override
+    public void run() {
+        if (Contention.ENABLED) {
+            Contention.current().reset();
+        }
+
+        round.arrive();
+        try {
+            work();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (Contention.ENABLED) {
+                this.contention = Contention.current().copy();
+            }
+
+            round.finish();
+        }
+    }
+
+    private void work() throws InterruptedException {
+        long operations = 0;
+        long untilSample = samplingInterval > 0 ? samplingInterval : Long.MAX_VALUE;
+        Gaps gaps = trackingGaps ? new Gaps() : null;
+        try {
+            while (!round.isStopped()) {
+                long item = HandOff.NO_STAMP;
+                if (--untilSample == 0) {
+                    untilSample = samplingInterval;
+                    item = System.nanoTime();
+                }
+
+                // a full queue is retried with the same item, its wait is part of its latency
+                int spins = 0;
+                while (!handOff.offer(item)) {
+                    if (round.isStopped()) {
+                        return;
+                    }
+
+                    spins = Spin.onSpinWait(spins);
+                }
+
+                operations++;
+                if (gaps != null) {
+                    gaps.operated();
+                }
+
+                if (progress != null) {
+                    progress.lazySet(operations);
+                }
+            }
+        } finally {
+            this.operations = operations;
+            this.longestGap = gaps != null ? gaps.finish() : -1;
+        }
+    }
+
+    @Override
+    public long getReadOperations() {
+        return 0;
+    }
+
+    @Override
+    public long getWriteOperations() {
+        return operations;
+    }
+
+    @Override
+    public Histogram getReadLatency() {
+        return null;
+    }
+
+    @Override
+    public Histogram getWriteLatency() {
+        return null;
+    }
+
+    @Override
+    public long getLongestGap() {
+        return longestGap;
+    }
+
+    @Override
+    public Contention getContention() {
+        return contention;
+    }
+}
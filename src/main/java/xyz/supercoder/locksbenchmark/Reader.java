@@ -1,47 +1,128 @@
 package xyz.supercoder.locksbenchmark;
 
-import java.util.concurrent.BrokenBarrierException;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.CyclicBarrier;
-
-public class Reader implements Runnable {
+public class Reader implements Task {
 
     private final Counter counter;
 
     private final long targetValue;
 
-    private final CyclicBarrier startWorkingBarrier;
+    private final Round round;
+
+    private final int samplingInterval;
+
+    private final Histogram latency;
+
+    private final boolean trackingGaps;
+
+    private final PaddedLong progress;
 
-    private final CountDownLatch stopWorkingLatch;
+    private long operations;
+
+    private long longestGap = -1;
+
+    private Contention contention;
 
     Reader(Counter counter,
-           CyclicBarrier startWorkingBarrier,
-           CountDownLatch stopWorkingLatch,
-           long targetValue) {
+           Round round,
+           long targetValue,
+           int samplingInterval,
+           boolean trackingGaps,
+           PaddedLong progress) {
         this.counter = counter;
         this.targetValue = targetValue;
+        this.round = round;
 
-        this.startWorkingBarrier = startWorkingBarrier;
-        this.stopWorkingLatch = stopWorkingLatch;
+        this.samplingInterval = samplingInterval;
+        this.latency = samplingInterval > 0 ? new Histogram() : null;
+        this.trackingGaps = trackingGaps;
+        this.progress = progress;
     }
 
     @Override
     public void run() {
+        if (Contention.ENABLED) {
+            Contention.current().reset();
+        }
+
+        round.arrive();
         try {
-            startWorkingBarrier.await();
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        } catch (BrokenBarrierException e) {
-            e.printStackTrace();
+            work();
+        } finally {
+            if (Contention.ENABLED) {
+                this.contention = Contention.current().copy();
+            }
+
+            round.finish();
         }
+    }
+
+    private void work() {
+        // count in a local variable, the readers must not share a cache line while working
+        long operations = 0;
+        long untilSample = firstSample();
+        Gaps gaps = trackingGaps ? new Gaps() : null;
+        while (!round.isStopped()) {
+            long value;
+            if (--untilSample == 0) {
+                untilSample = samplingInterval;
+                long start = System.nanoTime();
+                value = counter.get();
+                latency.record(System.nanoTime() - start);
+            } else {
+                value = counter.get();
+            }
+
+            operations++;
+            if (gaps != null) {
+                gaps.operated();
+            }
+
+            if (progress != null) {
+                progress.lazySet(operations);
+            }
 
-        while (!Thread.interrupted()) {
-            long value = counter.get();
             if (value > targetValue) {
+                round.stop();
                 break;
             }
         }
 
-        stopWorkingLatch.countDown();
+        this.operations = operations;
+        this.longestGap = gaps != null ? gaps.finish() : -1;
+    }
+
+    @Override
+    public long getReadOperations() {
+        return operations;
+    }
+
+    @Override
+    public long getWriteOperations() {
+        return 0;
+    }
+
+    @Override
+    public Histogram getReadLatency() {
+        return latency;
+    }
+
+    @Override
+    public Histogram getWriteLatency() {
+        return null;
+    }
+
+    @Override
+    public long getLongestGap() {
+        return longestGap;
+    }
+
+    @Override
+    public Contention getContention() {
+        return contention;
+    }
+
+    // without sampling, the countdown can never reach 0
+    private long firstSample() {
+        return samplingInterval > 0 ? samplingInterval : Long.MAX_VALUE;
     }
 }
@@ -0,0 +1,459 @@
+package xyz.supercoder.locksbenchmark;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * The measured rounds of one {@link Counter} under one {@link Strategy}, the warmup rounds
+ * are never recorded.
+ */
+public class Result implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String name;
+
+    private final Mode mode;
+
+    private final Strategy strategy;
+
+    private final double maxVariation;
+
+    private final long[] elapsed;
+
+    private final long[] readOperations;
+
+    private final long[] writeOperations;
+
+    private final Histogram readLatency = new Histogram();
+
+    private final Histogram writeLatency = new Histogram();
+
+    private final Contention contention = new Contention();
+
+    private final RuntimeEvents[] events;
+
+    private final Map<String, Fairness> fairness = new LinkedHashMap<>();
+
+    private final long[][] series;
+
+    private long pinnedEvents;
+
+    private long pinnedTime;
+
+    private long tornReads;
+
+    Result(String name, Strategy strategy) {
+        this.name = name;
+        this.mode = strategy.getMode();
+        this.strategy = strategy;
+        this.maxVariation = strategy.getMaxVariation() / 100.0;
+
+        int rounds = strategy.getRounds();
+        this.elapsed = new long[rounds];
+        this.readOperations = new long[rounds];
+        this.writeOperations = new long[rounds];
+        this.series = new long[rounds][0];
+        this.events = new RuntimeEvents[rounds];
+        for (int round = 0; round < rounds; round++) {
+            this.events[round] = new RuntimeEvents();
+        }
+    }
+
+    /**
+     * @param elapsed The elapsed time(ns) of the round
+     */
+    void record(int round, long elapsed, long readOperations, long writeOperations) {
+        this.elapsed[round] = elapsed;
+        this.readOperations[round] = readOperations;
+        this.writeOperations[round] = writeOperations;
+    }
+
+    /**
+     * Merge the latencies sampled by one thread, the histogram is left untouched.
+     */
+    void recordReadLatency(Histogram latency) {
+        readLatency.merge(latency);
+    }
+
+    void recordWriteLatency(Histogram latency) {
+        writeLatency.merge(latency);
+    }
+
+    void recordContention(Contention contention) {
+        this.contention.merge(contention);
+    }
+
+    /**
+     * @param pinnedTime The total time(ns) the virtual threads pinned their carriers
+     */
+    void recordPinning(long pinnedEvents, long pinnedTime) {
+        this.pinnedEvents = pinnedEvents;
+        this.pinnedTime = pinnedTime;
+    }
+
+    void recordTornReads(long tornReads) {
+        this.tornReads = tornReads;
+    }
+
+    /**
+     * Record the operations and the longest gap of every thread of one role, e.g. the readers.
+     */
+    void recordFairness(int round, String role, Task[] tasks) {
+        long[] operations = Arrays.stream(tasks)
+                .mapToLong(task -> task.getReadOperations() + task.getWriteOperations()).toArray();
+        long longestGap = Arrays.stream(tasks).mapToLong(Task::getLongestGap).max().orElse(-1);
+        fairness.computeIfAbsent(role, key -> new Fairness(elapsed.length)).record(round, operations, longestGap);
+    }
+
+    /**
+     * @param throughputs The throughput(ops/s) of all threads in every interval of the round
+     */
+    void recordSeries(int round, long[] throughputs) {
+        this.series[round] = throughputs.clone();
+    }
+
+    void recordEvents(int round, RuntimeEvents events) {
+        this.events[round].merge(events);
+    }
+
+    /**
+     * Record the single round measured by a forked JVM as the given round.
+     */
+    void recordRound(int round, Result other) {
+        record(round, other.elapsed[0], other.readOperations[0], other.writeOperations[0]);
+        readLatency.merge(other.readLatency);
+        writeLatency.merge(other.writeLatency);
+        contention.merge(other.contention);
+        pinnedEvents += other.pinnedEvents;
+        pinnedTime += other.pinnedTime;
+        tornReads += other.tornReads;
+        series[round] = other.series[0];
+        events[round].merge(other.events[0]);
+        other.fairness.forEach((role, roleFairness) -> fairness
+                .computeIfAbsent(role, key -> new Fairness(elapsed.length))
+                .record(round, roleFairness.getOperations(0), roleFairness.getLongestGap()));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    public int getRounds() {
+        return elapsed.length;
+    }
+
+    /**
+     * The elapsed time(ms) of each round.
+     */
+    public long[] getElapsed() {
+        return Arrays.stream(elapsed).map(TimeUnit.NANOSECONDS::toMillis).toArray();
+    }
+
+    /**
+     * The get() calls of all readers in each round.
+     */
+    public long[] getReadOperations() {
+        return readOperations.clone();
+    }
+
+    /**
+     * The increment() calls of all writers in each round.
+     */
+    public long[] getWriteOperations() {
+        return writeOperations.clone();
+    }
+
+    /**
+     * The get() calls per second of all readers in each round.
+     */
+    public long[] getReadThroughputs() {
+        return perSecond(readOperations);
+    }
+
+    /**
+     * The increment() calls per second of all writers in each round.
+     */
+    public long[] getWriteThroughputs() {
+        return perSecond(writeOperations);
+    }
+
+    /**
+     * The average elapsed time(ms), without the min and max round.
+     */
+    public long getAverageElapsed() {
+        return average(getElapsed());
+    }
+
+    /**
+     * The get() calls per second of all readers, without the min and max round.
+     */
+    public long getReadThroughput() {
+        return average(perSecond(readOperations));
+    }
+
+    /**
+     * The increment() calls per second of all writers, without the min and max round.
+     */
+    public long getWriteThroughput() {
+        return average(perSecond(writeOperations));
+    }
+
+    public long getThroughput() {
+        return getReadThroughput() + getWriteThroughput();
+    }
+
+    /**
+     * The time(ns) a writer takes to fill a batch, which is how stale get() may be: an increment
+     * stays invisible for up to this long, and half of it on average. 0 if no increment was made.
+     */
+    public long getPublishInterval() {
+        long writeThroughput = getWriteThroughput();
+        return writeThroughput > 0
+                ? (long) (1e9 * strategy.getBatchSize() * strategy.getWriterThreads() / writeThroughput) : 0;
+    }
+
+    public Statistics getElapsedStatistics() {
+        return Statistics.of(getElapsed());
+    }
+
+    public Statistics getReadThroughputStatistics() {
+        return Statistics.of(perSecond(readOperations));
+    }
+
+    public Statistics getWriteThroughputStatistics() {
+        return Statistics.of(perSecond(writeOperations));
+    }
+
+    public Statistics getThroughputStatistics() {
+        long[] operations = new long[readOperations.length];
+        for (int round = 0; round < operations.length; round++) {
+            operations[round] = readOperations[round] + writeOperations[round];
+        }
+
+        return Statistics.of(perSecond(operations));
+    }
+
+    /**
+     * Whether the rounds vary too much to trust the result: the elapsed time in target mode,
+     * the total throughput in the timed modes.
+     */
+    public boolean isUnstable() {
+        Statistics statistics = mode.isTimed() ? getThroughputStatistics() : getElapsedStatistics();
+        return statistics.isUnstable(maxVariation);
+    }
+
+    /**
+     * The sampled latencies(ns) of get() in all rounds, empty if sampling is disabled.
+     */
+    public Histogram getReadLatency() {
+        return readLatency;
+    }
+
+    /**
+     * The sampled latencies(ns) of increment() in all rounds, empty if sampling is disabled.
+     */
+    public Histogram getWriteLatency() {
+        return writeLatency;
+    }
+
+    /**
+     * The contention seen by all threads in all rounds, empty if it is not collected.
+     */
+    public Contention getContention() {
+        return contention;
+    }
+
+    /**
+     * How evenly the threads of each role shared the work: readers and writers, or the threads in mixed mode.
+     */
+    public Map<String, Fairness> getFairness() {
+        return Collections.unmodifiableMap(fairness);
+    }
+
+    /**
+     * The runtime events of all rounds, empty if they are not recorded.
+     */
+    public RuntimeEvents getEvents() {
+        RuntimeEvents total = new RuntimeEvents();
+        for (RuntimeEvents round : events) {
+            total.merge(round);
+        }
+
+        return total;
+    }
+
+    /**
+     * The runtime events of each round, empty if they are not recorded.
+     */
+    public RuntimeEvents[] getRoundEvents() {
+        return events.clone();
+    }
+
+    /**
+     * How often a virtual thread pinned its carrier in all rounds, 0 on platform threads.
+     */
+    public long getPinnedEvents() {
+        return pinnedEvents;
+    }
+
+    public long getPinnedTime() {
+        return pinnedTime;
+    }
+
+    /**
+     * The throughput(ops/s) of every interval of every round, empty if the rounds are not sampled.
+     */
+    public long[][] getSeries() {
+        return Arrays.stream(series).map(long[]::clone).toArray(long[][]::new);
+    }
+
+    /**
+     * Whether the throughput of the round drifted: the last third of its intervals is off from the first
+     * third by more than the max variation of the average. A round of less than 3 intervals is steady.
+     */
+    public boolean isSteady(int round) {
+        long[] throughputs = series[round];
+        int third = throughputs.length / 3;
+        if (third == 0) {
+            return true;
+        }
+
+        double first = Arrays.stream(throughputs, 0, third).average().orElse(0);
+        double last = Arrays.stream(throughputs, throughputs.length - third, throughputs.length).average().orElse(0);
+        double average = Arrays.stream(throughputs).average().orElse(0);
+        return Math.abs(last - first) <= maxVariation * average;
+    }
+
+    /**
+     * How often get() saw a record written half in all rounds, only the record workload can tell.
+     */
+    public long getTornReads() {
+        return tornReads;
+    }
+
+    private long[] perSecond(long[] operations) {
+        long[] results = new long[operations.length];
+        for (int round = 0; round < operations.length; round++) {
+            results[round] = (long) (operations[round] * 1e9 / Math.max(elapsed[round], 1));
+        }
+
+        return results;
+    }
+
+    // remove the min and max value, and calculate the average
+    private static long average(long[] values) {
+        return Arrays.stream(values).boxed()
+                .sorted().skip(1)                           // remove min value
+                .sorted(Comparator.reverseOrder()).skip(1)  // remove max value
+                .collect(Collectors.averagingLong(Long::valueOf)).longValue();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        if (mode.isTimed()) {
+            builder.append(String.format(
+                    "read(ops/s): %d, write(ops/s): %d, details(read ops/s): %s, details(write ops/s): %s",
+                    getReadThroughput(), getWriteThroughput(),
+                    Arrays.toString(perSecond(readOperations)), Arrays.toString(perSecond(writeOperations))));
+        } else {
+            builder.append(String.format("average(ms): %d, details(ms): %s",
+                    getAverageElapsed(), Arrays.toString(getElapsed())));
+        }
+
+        if (mode.isTimed()) {
+            builder.append(System.lineSeparator()).append("read(ops/s): ").append(getReadThroughputStatistics());
+            builder.append(System.lineSeparator()).append("write(ops/s): ").append(getWriteThroughputStatistics());
+        } else {
+            builder.append(System.lineSeparator()).append("elapsed(ms): ").append(getElapsedStatistics());
+        }
+
+        if (isUnstable()) {
+            builder.append(System.lineSeparator()).append(String.format(
+                    "UNSTABLE: the coefficient of variation is above %.0f%%, more warmup or rounds may help",
+                    maxVariation * 100));
+        }
+
+        if (readLatency.getTotalCount() > 0 || writeLatency.getTotalCount() > 0) {
+            if (strategy.isHandOff()) {
+                builder.append(System.lineSeparator()).append("hand-off latency(ns): ").append(readLatency);
+            } else {
+                builder.append(System.lineSeparator()).append("get() latency(ns): ").append(readLatency);
+                builder.append(System.lineSeparator()).append(writeLatencyLabel()).append(writeLatency);
+            }
+        }
+
+        if (strategy.getBatchSize() > 1) {
+            builder.append(System.lineSeparator()).append(String.format(
+                    "batch: %d increments per add(), published every %d ns per writer",
+                    strategy.getBatchSize(), getPublishInterval()));
+        }
+
+        if (strategy.getWorkload() == WorkloadType.Record) {
+            builder.append(System.lineSeparator()).append(String.format(
+                    "torn reads: %d of a record of %d longs", tornReads, strategy.getWorkloadSize()));
+        }
+
+        if (strategy.getSeriesInterval() > 0) {
+            builder.append(System.lineSeparator()).append(String.format(
+                    "series(ops/s every %d ms): %s", strategy.getSeriesInterval(), seriesSummary()));
+        }
+
+        fairness.forEach((role, roleFairness) -> builder.append(System.lineSeparator())
+                .append("fairness of ").append(role).append(": ").append(roleFairness));
+
+        if (Contention.ENABLED) {
+            builder.append(System.lineSeparator()).append("contention: ").append(contention);
+        }
+
+        if (strategy.isRecordingEvents()) {
+            builder.append(System.lineSeparator()).append("runtime events(ns): ").append(getEvents());
+            builder.append(System.lineSeparator()).append("details(gc pauses + safepoints ns): ").append(
+                    Arrays.toString(Arrays.stream(events)
+                            .mapToLong(round -> round.getGcPauseTime() + round.getSafepointTime()).toArray()));
+        }
+
+        if (strategy.isVirtual()) {
+            builder.append(System.lineSeparator()).append(String.format(
+                    "pinned: %d times, %d ns in total", pinnedEvents, pinnedTime));
+        }
+
+        return builder.toString();
+    }
+
+    // the range of the intervals of every round, e.g. [9000..10000, 5000..9800 UNSTEADY]
+    private String seriesSummary() {
+        StringBuilder summary = new StringBuilder("[");
+        for (int round = 0; round < series.length; round++) {
+            summary.append(round > 0 ? ", " : "");
+            summary.append(String.format("%d..%d", Arrays.stream(series[round]).min().orElse(0),
+                    Arrays.stream(series[round]).max().orElse(0)));
+            summary.append(isSteady(round) ? "" : " UNSTEADY");
+        }
+
+        return summary.append("]").toString();
+    }
+
+    private String writeLatencyLabel() {
+        if (mode == Mode.OpenLoop) {
+            return "increment() latency(ns) from the schedule: ";
+        }
+
+        return strategy.getBatchSize() > 1 ? "add() latency(ns): " : "increment() latency(ns): ";
+    }
+}
@@ -0,0 +1,87 @@
+package xyz.supercoder.locksbenchmark;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded lock-free queue of longs for many producers and many consumers, after Dmitry Vyukov's
+ * bounded MPMC queue: every slot has a sequence which tells whose turn it is, a producer claims a
+ * slot by a CAS on the tail and a consumer by a CAS on the head, then publishes it by its sequence.
+ *
+ * It neither allocates nor blocks: offer() fails at once when the buffer is full, poll() when it is empty.
+ */
+final class RingBuffer {
+
+    static final long EMPTY = Long.MIN_VALUE;
+
+    private final int mask;
+
+    private final AtomicLongArray sequences;
+
+    // only read after the sequence of the slot says it is written, and written after it says it is free
+    private final long[] items;
+
+    private final PaddedLong tail = new PaddedLong();
+
+    private final PaddedLong head = new PaddedLong();
+
+    /**
+     * @param capacity The number of slots, MUST be a power of 2
+     */
+    RingBuffer(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("The capacity MUST be a power of 2: " + capacity);
+        }
+
+        this.mask = capacity - 1;
+        this.sequences = new AtomicLongArray(capacity);
+        this.items = new long[capacity];
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    boolean offer(long item) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    items[index] = item;
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+
+                Contention.casFailed();
+            } else if (difference < 0) {
+                // the slot still holds the item of the previous lap
+                return false;
+            }
+
+            // else another producer has claimed the slot, try the next one
+        }
+    }
+
+    /**
+     * The oldest item, or {@link #EMPTY} if there is none.
+     */
+    long poll() {
+        while (true) {
+            long position = head.get();
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    long item = items[index];
+                    sequences.lazySet(index, position + mask + 1);
+                    return item;
+                }
+
+                Contention.casFailed();
+            } else if (difference < 0) {
+                // the slot has not been written in this lap
+                return EMPTY;
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package xyz.supercoder.locksbenchmark;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The start gate and stop signal shared by the threads of one round.
+ *
+ * Every thread arrives at the gate and spins until {@link #start()} opens it, so the threads
+ * are released together without the wake-up latency of a barrier. The round is over as soon
+ * as {@link #stop()} is called, either by the first reader reaching the target, or by the
+ * main thread when the duration is over. Both moments are taken with {@link System#nanoTime()}.
+ *
+ * Virtual threads park at the gate instead: a spinning virtual thread keeps its carrier, and the
+ * threads which have not arrived yet may never get one.
+ */
+public class Round {
+
+    private final CountDownLatch readyLatch;
+
+    private final CountDownLatch finishedLatch;
+
+    private final CountDownLatch startLatch = new CountDownLatch(1);
+
+    private final boolean spinning;
+
+    private final AtomicLong stopTime = new AtomicLong();
+
+    private volatile boolean started;
+
+    private volatile boolean stopped;
+
+    private long startTime;
+
+    Round(int threads) {
+        this(threads, true);
+    }
+
+    /**
+     * @param spinning Whether the threads spin at the gate, or park until it is opened
+     */
+    Round(int threads, boolean spinning) {
+        this.readyLatch = new CountDownLatch(threads);
+        this.finishedLatch = new CountDownLatch(threads);
+        this.spinning = spinning;
+    }
+
+    /**
+     * Called by every thread, returns when the gate is opened.
+     */
+    void arrive() {
+        readyLatch.countDown();
+        if (!spinning) {
+            awaitStarted();
+            return;
+        }
+
+        // yield now and then, the threads which have not arrived yet may need the processor
+        int spins = 0;
+        while (!started) {
+            spins = Spin.onSpinWait(spins);
+        }
+    }
+
+    /**
+     * Wait for all threads to arrive at the gate, then open it.
+     */
+    void start() throws InterruptedException {
+        readyLatch.await();
+        startTime = System.nanoTime();
+        started = true;
+        startLatch.countDown();
+    }
+
+    private void awaitStarted() {
+        boolean interrupted = false;
+        while (!started) {
+            try {
+                startLatch.await();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Only the first call takes the stop time.
+     */
+    void stop() {
+        stopTime.compareAndSet(0, System.nanoTime());
+        stopped = true;
+    }
+
+    /**
+     * Called by every thread when it leaves the round.
+     */
+    void finish() {
+        finishedLatch.countDown();
+    }
+
+    void awaitFinished() throws InterruptedException {
+        finishedLatch.await();
+    }
+
+    /**
+     * The time(ns) between opening the gate and the first stop.
+     */
+    long getElapsed() {
+        return stopTime.get() - startTime;
+    }
+}
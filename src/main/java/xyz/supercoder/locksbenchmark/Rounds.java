@@ -0,0 +1,141 @@
+package xyz.supercoder.locksbenchmark;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Run the warmup and the measured rounds of a {@link Benchmark}, and record the measured ones.
+ *
+ * The warmup rounds go first, they are run exactly like the others but never recorded.
+ */
+final class Rounds {
+
+    private Rounds() {
+        // util class, can not be instanced
+    }
+
+    static Result measure(Benchmark benchmark, Strategy strategy, Harness harness) {
+        int warmupRounds = strategy.getWarmupRounds();
+        int totalRounds = warmupRounds + strategy.getRounds();
+        Result result = new Result(benchmark.name(), strategy);
+        boolean timed = strategy.getMode().isTimed();
+
+        // only the measured rounds are recorded, the virtual threads may pin during the warmup as well,
+        // a jar built on java8 has no recorder, its pinning is not counted
+        PinningRecorder pinning = (strategy.isVirtual() && FlightRecording.isAvailable())
+                ? FlightRecording.pinning() : null;
+        EventRecorder events = strategy.isRecordingEvents() ? FlightRecording.events() : null;
+
+        for (int n = 0; n < totalRounds; n++) {
+            if (pinning != null && n == warmupRounds) {
+                pinning.start();
+            }
+
+            if (events != null && n == warmupRounds) {
+                events.start();
+            }
+
+            if (n == warmupRounds) {
+                benchmark.measuring();
+            }
+
+            benchmark.reset();
+
+            Round round = new Round(strategy.getTotalThreads(), !strategy.isVirtual());
+
+            // only the measured rounds are sampled, every thread publishes its progress in a padded slot
+            PaddedLong[] progress = new PaddedLong[strategy.getTotalThreads()];
+            boolean sampled = strategy.getSeriesInterval() > 0 && n >= warmupRounds;
+            for (int i = 0; i < progress.length && sampled; i++) {
+                progress[i] = new PaddedLong();
+            }
+
+            Task[] tasks = benchmark.tasks(strategy, round, progress);
+            Sampler sampler = sampled ? new Sampler(progress, strategy.getSeriesInterval()) : null;
+
+            harness.execute(tasks);
+
+            Instant roundStart = null;
+            try {
+                // wait for all threads to spin at the gate, then release them at once
+                round.start();
+                roundStart = Instant.now();
+                if (sampler != null) {
+                    sampler.start();
+                }
+
+                if (timed) {
+                    Thread.sleep(strategy.getDuration());
+                    round.stop();
+                }
+
+                // in target mode, the fastest reader stops the round
+                round.awaitFinished();
+                if (sampler != null) {
+                    sampler.stop();
+                    result.recordSeries(n - warmupRounds, sampler.getThroughputs());
+                }
+            } catch (InterruptedException e) {
+                round.stop();
+                Thread.currentThread().interrupt();
+                if (sampler != null) {
+                    sampler.stop();
+                }
+            }
+
+            int index = n - warmupRounds;
+            if (events != null && index >= 0) {
+                // the round ends at the first stop, before the threads finish and park again
+                Instant start = (roundStart != null) ? roundStart : Instant.now();
+                events.round(start, start.plusNanos(Math.max(round.getElapsed(), 0)));
+            }
+
+            if (index >= 0) {
+                record(result, index, strategy, benchmark.roles(), round, tasks);
+            }
+
+            // update progress
+            ProgressBar.show((n + 1) * 100 / totalRounds);
+        }
+
+        if (pinning != null) {
+            pinning.stop();
+            result.recordPinning(pinning.getEvents(), pinning.getPinnedTime());
+        }
+
+        if (events != null) {
+            RuntimeEvents[] rounds = events.stop(strategy.getJfrDirectory(), benchmark.name());
+            for (int i = 0; i < rounds.length; i++) {
+                result.recordEvents(i, rounds[i]);
+            }
+        }
+
+        return result;
+    }
+
+    private static void record(Result result, int index, Strategy strategy, String[] roles, Round round,
+                               Task[] tasks) {
+        result.record(index, round.getElapsed(),
+                Arrays.stream(tasks).mapToLong(Task::getReadOperations).sum(),
+                Arrays.stream(tasks).mapToLong(Task::getWriteOperations).sum());
+
+        Arrays.stream(tasks).map(Task::getReadLatency).filter(Objects::nonNull)
+                .forEach(result::recordReadLatency);
+        Arrays.stream(tasks).map(Task::getWriteLatency).filter(Objects::nonNull)
+                .forEach(result::recordWriteLatency);
+
+        // the fairness only compares threads of the same role
+        if (strategy.getMode() == Mode.Mixed) {
+            result.recordFairness(index, "threads", tasks);
+        } else {
+            result.recordFairness(index, roles[0], Arrays.copyOfRange(tasks, 0, strategy.getReaderThreads()));
+            result.recordFairness(index, roles[1],
+                    Arrays.copyOfRange(tasks, strategy.getReaderThreads(), tasks.length));
+        }
+
+        if (Contention.ENABLED) {
+            Arrays.stream(tasks).map(Task::getContention).forEach(result::recordContention);
+        }
+    }
+}
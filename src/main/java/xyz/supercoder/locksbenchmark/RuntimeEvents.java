@@ -0,0 +1,132 @@
+package xyz.supercoder.locksbenchmark;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * What the JVM did while the threads were working, summarized from the events of a flight recording:
+ * contended monitor enters, parked threads, GC pauses and safepoints. See {@link EventRecorder}.
+ */
+public class RuntimeEvents implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long monitorEnters;
+
+    private long monitorEnterTime;
+
+    private long parks;
+
+    private long parkTime;
+
+    private long collections;
+
+    private long gcPauseTime;
+
+    private long safepoints;
+
+    private long safepointTime;
+
+    void monitorEntered(long duration) {
+        monitorEnters++;
+        monitorEnterTime += duration;
+    }
+
+    void parked(long duration) {
+        parks++;
+        parkTime += duration;
+    }
+
+    void collected(long pauseTime) {
+        collections++;
+        gcPauseTime += pauseTime;
+    }
+
+    void safepointReached(long duration) {
+        safepoints++;
+        safepointTime += duration;
+    }
+
+    void merge(RuntimeEvents other) {
+        this.monitorEnters += other.monitorEnters;
+        this.monitorEnterTime += other.monitorEnterTime;
+        this.parks += other.parks;
+        this.parkTime += other.parkTime;
+        this.collections += other.collections;
+        this.gcPauseTime += other.gcPauseTime;
+        this.safepoints += other.safepoints;
+        this.safepointTime += other.safepointTime;
+    }
+
+    /**
+     * The contended monitor enters, which waited for the monitor to be released.
+     */
+    public long getMonitorEnters() {
+        return monitorEnters;
+    }
+
+    /**
+     * The total time(ns) the monitor enters waited.
+     */
+    public long getMonitorEnterTime() {
+        return monitorEnterTime;
+    }
+
+    public long getParks() {
+        return parks;
+    }
+
+    /**
+     * The total time(ns) the threads were parked.
+     */
+    public long getParkTime() {
+        return parkTime;
+    }
+
+    public long getCollections() {
+        return collections;
+    }
+
+    /**
+     * The total time(ns) the collections paused the threads.
+     */
+    public long getGcPauseTime() {
+        return gcPauseTime;
+    }
+
+    public long getSafepoints() {
+        return safepoints;
+    }
+
+    /**
+     * The total time(ns) of the safepoints, from the beginning of the synchronization to the end.
+     */
+    public long getSafepointTime() {
+        return safepointTime;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("monitorEnters", monitorEnters);
+        map.put("monitorEnterTime", monitorEnterTime);
+        map.put("parks", parks);
+        map.put("parkTime", parkTime);
+        map.put("collections", collections);
+        map.put("gcPauseTime", gcPauseTime);
+        map.put("safepoints", safepoints);
+        map.put("safepointTime", safepointTime);
+        return map;
+    }
+
+    /**
+     * The format is as follows, the times are in ns:
+     * monitor enter=10 (5000), park=200 (900000), gc=1 (pauses 300000), safepoint=3 (400000)
+     */
+    @Override
+    public String toString() {
+        return String.format("monitor enter=%d (%d), park=%d (%d), gc=%d (pauses %d), safepoint=%d (%d)",
+                monitorEnters, monitorEnterTime, parks, parkTime,
+                collections, gcPauseTime, safepoints, safepointTime);
+    }
+}
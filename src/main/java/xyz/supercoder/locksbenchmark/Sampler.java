@@ -0,0 +1,103 @@
+package xyz.supercoder.locksbenchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A thread which sums the progress of all tasks at a fixed interval while a round runs, so that the
+ * throughput of the round can be seen over time, e.g. a counter which starts fast and then degrades.
+ *
+ * The samples go to a ring buffer allocated up front, the sampler neither allocates nor locks while
+ * the round runs. A round longer than the buffer keeps its latest samples.
+ */
+final class Sampler implements Runnable {
+
+    static final int CAPACITY = 4096;
+
+    private final PaddedLong[] progress;
+
+    private final long interval;
+
+    private final long[] times = new long[CAPACITY];
+
+    private final long[] operations = new long[CAPACITY];
+
+    // only written by the sampler thread, read after it has been joined
+    private int count;
+
+    private volatile boolean stopped;
+
+    private Thread thread;
+
+    /**
+     * @param progress The operations of every task so far
+     * @param interval The interval(ms) of the samples
+     */
+    Sampler(PaddedLong[] progress, long interval) {
+        this.progress = progress;
+        this.interval = TimeUnit.MILLISECONDS.toNanos(interval);
+    }
+
+    void start() {
+        thread = new Thread(this, "locksbenchmark-sampler");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void stop() {
+        stopped = true;
+        if (thread == null) {
+            return;
+        }
+
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            // the sampler stops on its own, its samples are not used then
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        // the deadlines never drift, however late a sample is taken
+        long deadline = System.nanoTime();
+        while (!stopped) {
+            sample();
+            deadline += interval;
+            for (long now = System.nanoTime(); now < deadline && !stopped; now = System.nanoTime()) {
+                LockSupport.parkNanos(deadline - now);
+            }
+        }
+
+        // the interval cut short by the end of the round is left out, the threads stop during it
+    }
+
+    private void sample() {
+        long sum = 0;
+        for (PaddedLong value : progress) {
+            sum += value.get();
+        }
+
+        int slot = count % CAPACITY;
+        times[slot] = System.nanoTime();
+        operations[slot] = sum;
+        count++;
+    }
+
+    /**
+     * The throughput(ops/s) of every interval between two samples kept in the buffer, only valid after stop().
+     */
+    long[] getThroughputs() {
+        int kept = Math.min(count, CAPACITY);
+        long[] throughputs = new long[Math.max(kept - 1, 0)];
+        for (int i = 0; i < throughputs.length; i++) {
+            int from = (count - kept + i) % CAPACITY;
+            int to = (from + 1) % CAPACITY;
+            throughputs[i] = (long) ((operations[to] - operations[from]) * 1e9 / Math.max(times[to] - times[from], 1));
+        }
+
+        return throughputs;
+    }
+}
@@ -0,0 +1,126 @@
+package xyz.supercoder.locksbenchmark;
+
+/**
+ * A writer in an open loop: it calls increment() on a fixed schedule at the rate, whether the last call
+ * was fast or not. The latency of every call is taken from its scheduled start, not from its actual start,
+ * so the time a call waits behind a stalled one is counted as well (no coordinated omission).
+ */
+public class ScheduledWriter implements Task {
+
+    private final Counter counter;
+
+    private final Round round;
+
+    private final long interval;
+
+    private final Histogram latency = new Histogram();
+
+    private final PaddedLong progress;
+
+    private long operations;
+
+    private long longestGap;
+
+    private Contention contention;
+
+    /**
+     * @param rate The calls per second
+     */
+    ScheduledWriter(Counter counter,
+                    Round round,
+                    long rate,
+                    PaddedLong progress) {
+        this.counter = counter;
+        this.round = round;
+        this.interval = Math.max(1, 1000000000L / rate);
+        this.progress = progress;
+    }
+
+    @Override
+    public void run() {
+        if (Contention.ENABLED) {
+            Contention.current().reset();
+        }
+
+        round.arrive();
+        try {
+            work();
+        } finally {
+            if (Contention.ENABLED) {
+                this.contention = Contention.current().copy();
+            }
+
+            round.finish();
+        }
+    }
+
+    private void work() {
+        long operations = 0;
+        long scheduled = System.nanoTime();
+
+        // every call is timed anyway, the gaps cost nothing more
+        Gaps gaps = new Gaps();
+        while (!round.isStopped()) {
+            // wait for the schedule, but never for a call which is already late
+            int spins = 0;
+            while (System.nanoTime() < scheduled) {
+                if (round.isStopped()) {
+                    this.operations = operations;
+                    this.longestGap = gaps.finish();
+                    return;
+                }
+
+                spins = Spin.onSpinWait(spins);
+            }
+
+            counter.increment();
+            latency.record(System.nanoTime() - scheduled);
+            gaps.operated();
+
+            operations++;
+            scheduled += interval;
+            if (progress != null) {
+                progress.lazySet(operations);
+            }
+        }
+
+        this.operations = operations;
+        this.longestGap = gaps.finish();
+    }
+
+    @Override
+    public long getReadOperations() {
+        return 0;
+    }
+
+    @Override
+    public long getWriteOperations() {
+        return operations;
+    }
+
+    @Override
+    public Histogram getReadLatency() {
+        return null;
+    }
+
+    /**
+     * The latencies(ns) of all increment() calls from their scheduled start.
+     */
+    @Override
+    public Histogram getWriteLatency() {
+        return latency;
+    }
+
+    /**
+     * The longest gap(ns) between two calls, which includes the waits for the schedule.
+     */
+    @Override
+    public long getLongestGap() {
+        return longestGap;
+    }
+
+    @Override
+    public Contention getContention() {
+        return contention;
+    }
+}
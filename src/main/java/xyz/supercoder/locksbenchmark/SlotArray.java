@@ -0,0 +1,81 @@
+package xyz.supercoder.locksbenchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Slots of single writers laid out in contiguous long arrays, one slot every stride longs.
+ *
+ * The slots are handed out in blocks, a new block never moves the slots handed out before,
+ * so a writer keeps its slot while other writers register.
+ */
+final class SlotArray {
+
+    // the writers of one block are adjacent, the blocks themselves are separate arrays
+    private static final int BLOCK_SLOTS = 64;
+
+    private final int stride;
+
+    // the readers must see the blocks allocated by the writers during the round
+    private volatile AtomicLongArray[] blocks = new AtomicLongArray[0];
+
+    private int registered;
+
+    private volatile ThreadLocal<Slot> slot = ThreadLocal.withInitial(this::register);
+
+    /**
+     * @param stride The distance of two slots in longs, the first slot is as far from the array header
+     */
+    SlotArray(int stride) {
+        this.stride = stride;
+    }
+
+    private synchronized Slot register() {
+        int block = registered / BLOCK_SLOTS;
+        if (block == blocks.length) {
+            AtomicLongArray[] newBlocks = Arrays.copyOf(blocks, block + 1);
+            newBlocks[block] = new AtomicLongArray((BLOCK_SLOTS + 2) * stride);
+            blocks = newBlocks;
+        }
+
+        int index = (registered % BLOCK_SLOTS + 1) * stride;
+        registered++;
+        return new Slot(blocks[block], index);
+    }
+
+    synchronized void reset() {
+        // forget the slots of the threads from the last round
+        this.blocks = new AtomicLongArray[0];
+        this.registered = 0;
+        this.slot = ThreadLocal.withInitial(this::register);
+    }
+
+    long sum() {
+        long sum = 0;
+        for (AtomicLongArray block : this.blocks) {
+            for (int i = 1; i <= BLOCK_SLOTS; i++) {
+                sum += block.get(i * stride);
+            }
+        }
+
+        return sum;
+    }
+
+    void add(long delta) {
+        // only the owner thread writes a slot
+        Slot slot = this.slot.get();
+        slot.values.lazySet(slot.index, slot.values.get(slot.index) + delta);
+    }
+
+    private static final class Slot {
+
+        private final AtomicLongArray values;
+
+        private final int index;
+
+        private Slot(AtomicLongArray values, int index) {
+            this.values = values;
+            this.index = index;
+        }
+    }
+}
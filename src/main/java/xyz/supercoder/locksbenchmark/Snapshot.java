@@ -0,0 +1,33 @@
+package xyz.supercoder.locksbenchmark;
+
+/**
+ * The immutable state of the copy-on-write counter: the value and the workload guarded with it.
+ */
+final class Snapshot {
+
+    private final long value;
+
+    private final Workload workload;
+
+    Snapshot(long value, Workload workload) {
+        this.value = value;
+        this.workload = workload;
+    }
+
+    long getValue() {
+        return value;
+    }
+
+    Workload getWorkload() {
+        return workload;
+    }
+
+    /**
+     * The next snapshot, its workload is a written copy of this one.
+     */
+    Snapshot add(long delta) {
+        Workload next = workload.copy();
+        next.write();
+        return new Snapshot(value + delta, next);
+    }
+}
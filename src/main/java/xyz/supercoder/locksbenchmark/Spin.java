@@ -0,0 +1,55 @@
+package xyz.supercoder.locksbenchmark;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+public class Spin {
+
+    // Thread.onSpinWait() since java9, the JIT inlines the constant handle into a PAUSE instruction
+    private static final MethodHandle ON_SPIN_WAIT = findOnSpinWait();
+
+    private static final int SPINS_PER_YIELD = 1 << 10;
+
+    private Spin() {
+        // util class, can not be instanced
+    }
+
+    /**
+     * Hint the processor that the caller is busy-waiting, nothing happens on java8.
+     */
+    public static void onSpinWait() {
+        if (ON_SPIN_WAIT != null) {
+            try {
+                ON_SPIN_WAIT.invokeExact();
+            } catch (Throwable e) {
+                // never happens, Thread.onSpinWait() throws nothing
+            }
+        }
+    }
+
+    /**
+     * Like {@link #onSpinWait()}, but yield the processor once in a while, so a waiting thread does not burn
+     * the time slice of the thread it waits for when there are more threads than processors.
+     *
+     * @param spins The spins of the caller so far, 0 for the first call
+     * @return The spins so far, pass it to the next call
+     */
+    public static int onSpinWait(int spins) {
+        if (++spins % SPINS_PER_YIELD == 0) {
+            Thread.yield();
+        } else {
+            onSpinWait();
+        }
+
+        return spins;
+    }
+
+    private static MethodHandle findOnSpinWait() {
+        try {
+            return MethodHandles.lookup().findStatic(Thread.class, "onSpinWait", MethodType.methodType(void.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+}
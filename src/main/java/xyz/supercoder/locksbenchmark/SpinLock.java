@@ -0,0 +1,17 @@
+package xyz.supercoder.locksbenchmark;
+
+/**
+ * A mutual exclusion lock which busy-waits instead of parking, neither reentrant nor fair unless stated.
+ * Every acquisition must be released by the same thread, and nothing is allocated per acquisition.
+ */
+interface SpinLock {
+
+    void lock();
+
+    /**
+     * Acquire the lock only if nobody holds it nor waits for it.
+     */
+    boolean tryLock();
+
+    void unlock();
+}
@@ -0,0 +1,134 @@
+package xyz.supercoder.locksbenchmark;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Summary statistics of the measured rounds: mean, standard deviation, median,
+ * the 99% confidence interval of the mean and the coefficient of variation.
+ */
+public class Statistics {
+
+    // two-sided 99% quantiles of Student's t-distribution, indexed by the degrees of freedom
+    private static final double[] T_99 = {
+            Double.NaN, 63.657, 9.925, 5.841, 4.604, 4.032, 3.707, 3.499, 3.355, 3.250, 3.169,
+            3.106, 3.055, 3.012, 2.977, 2.947, 2.921, 2.898, 2.878, 2.861, 2.845,
+            2.831, 2.819, 2.807, 2.797, 2.787, 2.779, 2.771, 2.763, 2.756, 2.750,
+            2.744, 2.738, 2.733, 2.728, 2.724, 2.719, 2.715, 2.712, 2.708, 2.704
+    };
+
+    private final int count;
+
+    private final double mean;
+
+    private final double standardDeviation;
+
+    private final double median;
+
+    private Statistics(int count, double mean, double standardDeviation, double median) {
+        this.count = count;
+        this.mean = mean;
+        this.standardDeviation = standardDeviation;
+        this.median = median;
+    }
+
+    public static Statistics of(long[] values) {
+        int count = values.length;
+        if (count == 0) {
+            return new Statistics(0, 0, 0, 0);
+        }
+
+        double mean = Arrays.stream(values).average().orElse(0);
+
+        double squares = 0;
+        for (long value : values) {
+            squares += (value - mean) * (value - mean);
+        }
+
+        double standardDeviation = count > 1 ? Math.sqrt(squares / (count - 1)) : 0;
+
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        double median = (count % 2 == 1)
+                ? sorted[count / 2]
+                : (sorted[count / 2 - 1] + sorted[count / 2]) / 2.0;
+
+        return new Statistics(count, mean, standardDeviation, median);
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public double getStandardDeviation() {
+        return standardDeviation;
+    }
+
+    public double getMedian() {
+        return median;
+    }
+
+    /**
+     * Half the width of the 99% confidence interval of the mean.
+     */
+    public double getConfidenceInterval() {
+        if (count < 2) {
+            return 0;
+        }
+
+        return quantile(count - 1) * standardDeviation / Math.sqrt(count);
+    }
+
+    /**
+     * The standard deviation relative to the mean, between [0, 1] for sane results.
+     */
+    public double getCoefficientOfVariation() {
+        return mean != 0 ? standardDeviation / Math.abs(mean) : 0;
+    }
+
+    public boolean isUnstable(double maxCoefficientOfVariation) {
+        return getCoefficientOfVariation() > maxCoefficientOfVariation;
+    }
+
+    static double quantile(int degreesOfFreedom) {
+        // between the tabulated values take the one of the next smaller df, the wider interval is on the safe side
+        if (degreesOfFreedom < T_99.length) {
+            return T_99[degreesOfFreedom];
+        } else if (degreesOfFreedom < 60) {
+            return T_99[T_99.length - 1];
+        } else if (degreesOfFreedom < 120) {
+            return 2.660;
+        }
+
+        return 2.617;
+    }
+
+    public Map<String, Object> toMap() {
+        double interval = getConfidenceInterval();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("mean", mean);
+        map.put("standardDeviation", standardDeviation);
+        map.put("median", median);
+        map.put("confidenceLow", mean - interval);
+        map.put("confidenceHigh", mean + interval);
+        map.put("coefficientOfVariation", getCoefficientOfVariation());
+        return map;
+    }
+
+    /**
+     * The format is as follows:
+     * mean=100.0, sd=5.0, median=99.0, 99% CI=[90.0, 110.0], cv=5.0%
+     */
+    @Override
+    public String toString() {
+        double interval = getConfidenceInterval();
+        return String.format("mean=%.1f, sd=%.1f, median=%.1f, 99%% CI=[%.1f, %.1f], cv=%.1f%%",
+                mean, standardDeviation, median, mean - interval, mean + interval,
+                getCoefficientOfVariation() * 100);
+    }
+}
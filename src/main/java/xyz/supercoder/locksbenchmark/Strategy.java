@@ -2,9 +2,18 @@ package xyz.supercoder.locksbenchmark;
 
 import org.apache.commons.cli.*;
 
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
+
+// serializable, so that a forked JVM can be handed the strategy
+public class Strategy implements Serializable {
+    private static final long serialVersionUID = 1L;
 
-public class Strategy {
     private static final long MIN_TARGET_VALUE = 10000L;
     private static final long MAX_TARGET_VALUE = 100000000000000L;
     private static final long DEFAULT_TARGET_VALUE = 1000000L;
@@ -21,15 +30,125 @@ public class Strategy {
     private static final int MAX_ROUNDS = 1000000;
     private static final int DEFAULT_ROUNDS = 5;
 
+    private static final int MIN_WARMUP_ROUNDS = 0;
+    private static final int MAX_WARMUP_ROUNDS = 1000000;
+    private static final int DEFAULT_WARMUP_ROUNDS = 0;
+
+    private static final int MIN_MAX_VARIATION = 1;
+    private static final int MAX_MAX_VARIATION = 100;
+    private static final int DEFAULT_MAX_VARIATION = 5;
+
+    private static final int MIN_MIXED_THREADS = 1;
+    private static final int MAX_MIXED_THREADS = 1000000;
+    private static final int DEFAULT_MIXED_THREADS = 2;
+
+    private static final double MIN_READ_RATIO = 0.0;
+    private static final double MAX_READ_RATIO = 1.0;
+    private static final double DEFAULT_READ_RATIO = 0.9;
+
+    private static final long MIN_RATE = 1L;
+    private static final long MAX_RATE = 1000000000L;
+    private static final long DEFAULT_RATE = 100000L;
+
+    private static final int MIN_BATCH_SIZE = 1;
+    private static final int MAX_BATCH_SIZE = 1000000;
+    private static final int DEFAULT_BATCH_SIZE = 1;
+
+    private static final Mode DEFAULT_MODE = Mode.Target;
+
+    private static final long MIN_DURATION = 100L;
+    private static final long MAX_DURATION = 3600000L;
+    private static final long DEFAULT_DURATION = 1000L;
+
+    private static final int MIN_SAMPLING_INTERVAL = 0;
+    private static final int MAX_SAMPLING_INTERVAL = 1000000;
+    private static final int DEFAULT_SAMPLING_INTERVAL = 0;
+
+    private static final int MIN_SERIES_INTERVAL = 0;
+    private static final int MAX_SERIES_INTERVAL = 60000;
+    private static final int DEFAULT_SERIES_INTERVAL = 0;
+
+    private static final Sweep DEFAULT_SWEEP = Sweep.None;
+
+    private static final int MIN_MAX_THREADS = 1;
+    private static final int MAX_MAX_THREADS = 1000000;
+    private static final int DEFAULT_MAX_THREADS = Runtime.getRuntime().availableProcessors() * 2;
+
+    private static final WorkloadType DEFAULT_WORKLOAD = WorkloadType.None;
+
+    private static final int MIN_WORKLOAD_SIZE = 1;
+    private static final int MAX_WORKLOAD_SIZE = 100000000;
+    private static final int DEFAULT_WORKLOAD_SIZE = 100;
+
+    private static final Fork DEFAULT_FORK = Fork.None;
+
+    private static final int MIN_TOLERANCE = 0;
+    private static final int MAX_TOLERANCE = 1000;
+    private static final int DEFAULT_TOLERANCE = 10;
+
     private static String targetValueDesc;
     private static String readerThreadsDesc;
     private static String writerThreadsDesc;
+    private static String mixedThreadsDesc;
+    private static String readRatiosDesc;
     private static String roundsDesc;
+    private static String warmupRoundsDesc;
+    private static String maxVariationDesc;
+    private static String modeDesc;
+    private static String durationDesc;
+    private static String ratesDesc;
+    private static String batchSizesDesc;
+    private static String samplingIntervalDesc;
+    private static String seriesIntervalDesc;
+    private static String trackingGapsDesc;
+    private static String sweepDesc;
+    private static String maxThreadsDesc;
+    private static String workloadDesc;
+    private static String workloadSizesDesc;
+    private static String outputDesc;
+    private static String baselineDesc;
+    private static String toleranceDesc;
+    private static String instrumentedDesc;
+    private static String virtualDesc;
+    private static String recordingEventsDesc;
+    private static String jfrDirectoryDesc;
+    private static String forkDesc;
+    private static String jvmArgsDesc;
+    private static String countersDesc;
+    private static String campaignDesc;
+    private static String handOffsDesc;
 
     private long targetValue;
     private int readerThreads;
     private int writerThreads;
+    private int mixedThreads;
+    private double[] readRatios;
     private int rounds;
+    private int warmupRounds;
+    private int maxVariation;
+    private Mode mode;
+    private long duration;
+    private long[] rates;
+    private int[] batchSizes;
+    private int samplingInterval;
+    private int seriesInterval;
+    private boolean trackingGaps;
+    private Sweep sweep;
+    private int maxThreads;
+    private WorkloadType workload;
+    private int[] workloadSizes;
+    private String output;
+    private String baseline;
+    private int tolerance;
+    private boolean instrumented;
+    private boolean virtual;
+    private boolean recordingEvents;
+    private String jfrDirectory;
+    private Fork fork;
+    private String[] jvmArgs;
+    private Counter[] counters;
+    private String campaign;
+    private HandOff[] handOffs;
 
     private static Options options = new Options();
 
@@ -46,15 +165,167 @@ public class Strategy {
         options.addOption(Option.builder("w").longOpt("writers").desc(writerThreadsDesc)
                 .hasArg(true).type(Integer.class).build());
 
+        mixedThreadsDesc = makeDesc("The number of threads in mixed mode, which both read and write",
+                MIN_MIXED_THREADS, MAX_MIXED_THREADS, DEFAULT_MIXED_THREADS);
+        options.addOption(Option.builder("n").longOpt("threads").desc(mixedThreadsDesc)
+                .hasArg(true).type(Integer.class).build());
+
+        readRatiosDesc = String.format("The share of get() among the operations in mixed mode, "
+                        + "MUST between [%.1f, %.1f], default is %.1f. "
+                        + "A comma separated list runs every ratio one after another.",
+                MIN_READ_RATIO, MAX_READ_RATIO, DEFAULT_READ_RATIO);
+        options.addOption(Option.builder("p").longOpt("read-ratio").desc(readRatiosDesc)
+                .hasArg(true).type(String.class).build());
+
         roundsDesc = makeDesc("The rounds of testing",
                 MIN_ROUNDS, MAX_ROUNDS, DEFAULT_ROUNDS);
         options.addOption(Option.builder("R").longOpt("rounds").desc(roundsDesc)
                 .hasArg(true).type(Integer.class).build());
 
+        warmupRoundsDesc = makeDesc("The rounds of warming up, which are run but not reported",
+                MIN_WARMUP_ROUNDS, MAX_WARMUP_ROUNDS, DEFAULT_WARMUP_ROUNDS);
+        options.addOption(Option.builder("W").longOpt("warmup").desc(warmupRoundsDesc)
+                .hasArg(true).type(Integer.class).build());
+
+        maxVariationDesc = makeDesc("The max coefficient of variation(%) of the rounds, "
+                        + "a result above it is flagged as unstable",
+                MIN_MAX_VARIATION, MAX_MAX_VARIATION, DEFAULT_MAX_VARIATION);
+        options.addOption(Option.builder("C").longOpt("max-cv").desc(maxVariationDesc)
+                .hasArg(true).type(Integer.class).build());
+
         targetValueDesc = makeDesc("The target value",
                 MIN_TARGET_VALUE, MAX_TARGET_VALUE, DEFAULT_TARGET_VALUE);
         options.addOption(Option.builder("t").longOpt("target").desc(targetValueDesc)
                 .hasArg(true).type(Long.class).build());
+
+        modeDesc = String.format("The benchmark mode, MUST be one of %s, default is %s. "
+                        + "The target mode measures the time until the target value is reached, "
+                        + "the throughput mode counts the operations in a fixed duration, "
+                        + "the mixed mode does the same with threads which both read and write, "
+                        + "the openloop mode has the writers call increment() on a schedule at the rate.",
+                Mode.names(), DEFAULT_MODE.name().toLowerCase());
+        options.addOption(Option.builder("m").longOpt("mode").desc(modeDesc)
+                .hasArg(true).type(String.class).build());
+
+        durationDesc = makeDesc("The duration(ms) of each round in throughput mode",
+                MIN_DURATION, MAX_DURATION, DEFAULT_DURATION);
+        options.addOption(Option.builder("d").longOpt("duration").desc(durationDesc)
+                .hasArg(true).type(Long.class).build());
+
+        ratesDesc = makeDesc("The rate(ops/s) of every writer in openloop mode. "
+                        + "A comma separated list runs every rate one after another",
+                MIN_RATE, MAX_RATE, DEFAULT_RATE);
+        options.addOption(Option.builder("a").longOpt("rate").desc(ratesDesc)
+                .hasArg(true).type(String.class).build());
+
+        batchSizesDesc = makeDesc("The increments every writer buffers and publishes by one add() "
+                        + "in target and throughput mode. A comma separated list runs every size one after another",
+                MIN_BATCH_SIZE, MAX_BATCH_SIZE, DEFAULT_BATCH_SIZE);
+        options.addOption(Option.builder("b").longOpt("batch").desc(batchSizesDesc)
+                .hasArg(true).type(String.class).build());
+
+        samplingIntervalDesc = makeDesc("Sample the latency of every N-th get() and increment(), 0 is disabled",
+                MIN_SAMPLING_INTERVAL, MAX_SAMPLING_INTERVAL, DEFAULT_SAMPLING_INTERVAL);
+        options.addOption(Option.builder("l").longOpt("latency").desc(samplingIntervalDesc)
+                .hasArg(true).type(Integer.class).build());
+
+        seriesIntervalDesc = makeDesc("Sample the throughput of every round every N ms and flag the rounds "
+                        + "whose throughput was not steady, 0 is disabled",
+                MIN_SERIES_INTERVAL, MAX_SERIES_INTERVAL, DEFAULT_SERIES_INTERVAL);
+        options.addOption(Option.builder("i").longOpt("interval").desc(seriesIntervalDesc)
+                .hasArg(true).type(Integer.class).build());
+
+        trackingGapsDesc = "Time every operation to find the longest gap between two operations of a thread, "
+                + "the worst starvation, and show it next to the fairness of each result.";
+        options.addOption(Option.builder("g").longOpt("gaps").desc(trackingGapsDesc).build());
+
+        sweepDesc = String.format("Step the number of threads through 1, 2, 4 ... and report the scaling, "
+                        + "MUST be one of %s, default is %s.",
+                Sweep.names(), DEFAULT_SWEEP.name().toLowerCase());
+        options.addOption(Option.builder("S").longOpt("sweep").desc(sweepDesc)
+                .hasArg(true).type(String.class).build());
+
+        maxThreadsDesc = makeDesc("The max number of threads in a sweep",
+                MIN_MAX_THREADS, MAX_MAX_THREADS, DEFAULT_MAX_THREADS);
+        options.addOption(Option.builder("T").longOpt("max-threads").desc(maxThreadsDesc)
+                .hasArg(true).type(Integer.class).build());
+
+        workloadDesc = String.format("The work inside the critical section besides the value, "
+                        + "MUST be one of %s, default is %s. Counters without a lock or a snapshot are "
+                        + "skipped unless the workload is none.",
+                WorkloadType.names(), DEFAULT_WORKLOAD.name().toLowerCase());
+        options.addOption(Option.builder("k").longOpt("workload").desc(workloadDesc)
+                .hasArg(true).type(String.class).build());
+
+        workloadSizesDesc = makeDesc("The size of the workload: ns of busy, entries of map, longs of copy or record. "
+                        + "A comma separated list runs every size one after another",
+                MIN_WORKLOAD_SIZE, MAX_WORKLOAD_SIZE, DEFAULT_WORKLOAD_SIZE);
+        options.addOption(Option.builder("K").longOpt("workload-size").desc(workloadSizesDesc)
+                .hasArg(true).type(String.class).build());
+
+        outputDesc = "Write every round, statistic and parameter to the given file, "
+                + "the format is CSV if the file name ends with .csv, JSON otherwise.";
+        options.addOption(Option.builder("o").longOpt("output").desc(outputDesc)
+                .hasArg(true).type(String.class).build());
+
+        baselineDesc = "Compare the results with a file written by --output before, "
+                + "and exit with 1 if any counter regressed beyond the tolerance.";
+        options.addOption(Option.builder("B").longOpt("baseline").desc(baselineDesc)
+                .hasArg(true).type(String.class).build());
+
+        toleranceDesc = makeDesc("The tolerance(%) of a regression against the baseline",
+                MIN_TOLERANCE, MAX_TOLERANCE, DEFAULT_TOLERANCE);
+        options.addOption(Option.builder("X").longOpt("tolerance").desc(toleranceDesc)
+                .hasArg(true).type(Integer.class).build());
+
+        instrumentedDesc = "Count the CAS retries, failed optimistic reads, lock fast paths and lock waits "
+                + "of every thread, and show them next to each result. Same as -D" + Contention.PROPERTY
+                + "=true, nothing is counted nor paid for without it.";
+        options.addOption(Option.builder("I").longOpt("instrument").desc(instrumentedDesc).build());
+
+        virtualDesc = "Run the readers and writers on virtual threads and count how often they pin their carrier, "
+                + "MUST run on java21 or later. The threads may outnumber the carriers, whose number is set by "
+                + "-Djdk.virtualThreadScheduler.parallelism.";
+        options.addOption(Option.builder("V").longOpt("virtual").desc(virtualDesc).build());
+
+        recordingEventsDesc = "Record the contended monitor enters, parks, GC pauses and safepoints of every round "
+                + "by a flight recording, and show them next to each result. The recording costs time of its own, "
+                + "and needs a jar built on java11 or later.";
+        options.addOption(Option.builder("e").longOpt("events").desc(recordingEventsDesc).build());
+
+        jfrDirectoryDesc = "Like --events, and keep the flight recording of every counter as a .jfr file "
+                + "in the given directory.";
+        options.addOption(Option.builder("E").longOpt("jfr-dir").desc(jfrDirectoryDesc)
+                .hasArg(true).type(String.class).build());
+
+        forkDesc = String.format("Measure every counter, or every round, in a new JVM with the same classpath "
+                        + "and JVM flags, so that no counter inherits the JIT profile of another, "
+                        + "MUST be one of %s, default is %s.",
+                Fork.names(), DEFAULT_FORK.name().toLowerCase());
+        options.addOption(Option.builder("f").longOpt("fork").desc(forkDesc)
+                .hasArg(true).type(String.class).build());
+
+        jvmArgsDesc = "More JVM flags of the forked JVMs, separated by spaces. A leading dash needs the long option "
+                + "and an equal sign, e.g. --jvm-args=\"-Xmx1g -XX:+UseParallelGC\".";
+        options.addOption(Option.builder("j").longOpt("jvm-args").desc(jvmArgsDesc)
+                .hasArg(true).type(String.class).build());
+
+        countersDesc = "A comma separated list of the counters to measure, e.g. packedslots,padded64slots, "
+                + "default is all of them.";
+        options.addOption(Option.builder("c").longOpt("counters").desc(countersDesc)
+                .hasArg(true).type(String.class).build());
+
+        campaignDesc = "Run every combination of the options in the given properties file, e.g. readers = 1 | 4, "
+                + "and write all results to the file of -o. A campaign started again skips the results "
+                + "measured before.";
+        options.addOption(Option.builder("P").longOpt("campaign").desc(campaignDesc)
+                .hasArg(true).type(String.class).build());
+
+        handOffsDesc = String.format("Measure the hand-off of items from the writers to the readers through the "
+                        + "given comma separated queues instead of the counters, e.g. arrayblockingqueue,ringbuffer, "
+                        + "or all of %s. Only in throughput mode.", HandOff.names());
+        options.addOption(Option.builder("H").longOpt("handoff").desc(handOffsDesc)
+                .hasArg(true).type(String.class).build());
     }
 
     private static String makeDesc(String shortDesc, long minValue, long maxValue, long defaultValue) {
@@ -66,13 +337,131 @@ public class Strategy {
         this.targetValue = DEFAULT_TARGET_VALUE;
         this.readerThreads = DEFAULT_READER_THREADS;
         this.writerThreads = DEFAULT_WRITER_THREADS;
+        this.mixedThreads = DEFAULT_MIXED_THREADS;
+        this.readRatios = new double[]{DEFAULT_READ_RATIO};
         this.rounds = DEFAULT_ROUNDS;
+        this.warmupRounds = DEFAULT_WARMUP_ROUNDS;
+        this.maxVariation = DEFAULT_MAX_VARIATION;
+        this.mode = DEFAULT_MODE;
+        this.duration = DEFAULT_DURATION;
+        this.rates = new long[]{DEFAULT_RATE};
+        this.batchSizes = new int[]{DEFAULT_BATCH_SIZE};
+        this.samplingInterval = DEFAULT_SAMPLING_INTERVAL;
+        this.seriesInterval = DEFAULT_SERIES_INTERVAL;
+        this.sweep = DEFAULT_SWEEP;
+        this.maxThreads = DEFAULT_MAX_THREADS;
+        this.tolerance = DEFAULT_TOLERANCE;
+        this.workload = DEFAULT_WORKLOAD;
+        this.workloadSizes = new int[]{DEFAULT_WORKLOAD_SIZE};
+        this.fork = DEFAULT_FORK;
+        this.jvmArgs = new String[0];
+        this.counters = Counter.values();
+        this.handOffs = new HandOff[0];
+    }
+
+    private Strategy(Strategy other) {
+        this.targetValue = other.targetValue;
+        this.readerThreads = other.readerThreads;
+        this.writerThreads = other.writerThreads;
+        this.mixedThreads = other.mixedThreads;
+        this.readRatios = other.readRatios;
+        this.rounds = other.rounds;
+        this.warmupRounds = other.warmupRounds;
+        this.maxVariation = other.maxVariation;
+        this.mode = other.mode;
+        this.duration = other.duration;
+        this.rates = other.rates;
+        this.batchSizes = other.batchSizes;
+        this.samplingInterval = other.samplingInterval;
+        this.seriesInterval = other.seriesInterval;
+        this.trackingGaps = other.trackingGaps;
+        this.sweep = other.sweep;
+        this.maxThreads = other.maxThreads;
+        this.output = other.output;
+        this.baseline = other.baseline;
+        this.tolerance = other.tolerance;
+        this.instrumented = other.instrumented;
+        this.virtual = other.virtual;
+        this.workload = other.workload;
+        this.workloadSizes = other.workloadSizes;
+        this.recordingEvents = other.recordingEvents;
+        this.jfrDirectory = other.jfrDirectory;
+        this.fork = other.fork;
+        this.jvmArgs = other.jvmArgs;
+        this.counters = other.counters;
+        this.campaign = other.campaign;
+        this.handOffs = other.handOffs;
+    }
+
+    /**
+     * A copy of this strategy with the given number of reader and writer threads.
+     */
+    public Strategy withThreads(int readerThreads, int writerThreads) {
+        Strategy strategy = new Strategy(this);
+        strategy.setReaderThreads(readerThreads);
+        strategy.setWriterThreads(writerThreads);
+        return strategy;
+    }
+
+    /**
+     * A copy of this strategy with the given number of mixed threads.
+     */
+    public Strategy withMixedThreads(int mixedThreads) {
+        Strategy strategy = new Strategy(this);
+        strategy.setMixedThreads(mixedThreads);
+        return strategy;
+    }
+
+    /**
+     * A copy of this strategy with the given read ratio only.
+     */
+    public Strategy withReadRatio(double readRatio) {
+        Strategy strategy = new Strategy(this);
+        strategy.setReadRatios(new double[]{readRatio});
+        return strategy;
+    }
+
+    /**
+     * A copy of this strategy with the given rate only.
+     */
+    public Strategy withRate(long rate) {
+        Strategy strategy = new Strategy(this);
+        strategy.setRates(new long[]{rate});
+        return strategy;
+    }
+
+    /**
+     * A copy of this strategy with the given batch size only.
+     */
+    public Strategy withBatchSize(int batchSize) {
+        Strategy strategy = new Strategy(this);
+        strategy.setBatchSizes(new int[]{batchSize});
+        return strategy;
+    }
+
+    /**
+     * A copy of this strategy with the given workload size only.
+     */
+    public Strategy withWorkloadSize(int workloadSize) {
+        Strategy strategy = new Strategy(this);
+        strategy.setWorkloadSizes(new int[]{workloadSize});
+        return strategy;
+    }
+
+    /**
+     * A copy of this strategy with a single measured round, below the minimum on purpose:
+     * a JVM forked per round measures one round of this strategy.
+     */
+    Strategy withSingleRound() {
+        Strategy strategy = new Strategy(this);
+        strategy.rounds = 1;
+        return strategy;
     }
 
     public static Optional<Strategy> parseStrategy(String[] args) {
         Strategy strategy = new Strategy();
         try {
-            CommandLine commandLine = new DefaultParser().parse(options, args);
+            CommandLine commandLine = parse(args);
             if (commandLine.hasOption("h")) {
                 printHelpString();
                 return Optional.empty();
@@ -86,13 +475,131 @@ public class Strategy {
                 strategy.setWriterThreads(Integer.parseInt(commandLine.getOptionValue("w")));
             }
 
+            if (commandLine.hasOption("n")) {
+                strategy.setMixedThreads(Integer.parseInt(commandLine.getOptionValue("n")));
+            }
+
+            if (commandLine.hasOption("p")) {
+                strategy.setReadRatios(Arrays.stream(commandLine.getOptionValue("p").split(","))
+                        .map(String::trim).mapToDouble(Double::parseDouble).toArray());
+            }
+
             if (commandLine.hasOption("R")) {
                 strategy.setRounds(Integer.parseInt(commandLine.getOptionValue("R")));
             }
 
+            if (commandLine.hasOption("W")) {
+                strategy.setWarmupRounds(Integer.parseInt(commandLine.getOptionValue("W")));
+            }
+
+            if (commandLine.hasOption("C")) {
+                strategy.setMaxVariation(Integer.parseInt(commandLine.getOptionValue("C")));
+            }
+
             if (commandLine.hasOption("t")) {
                 strategy.setTargetValue(Long.parseLong(commandLine.getOptionValue("t")));
             }
+
+            if (commandLine.hasOption("m")) {
+                strategy.setMode(Mode.parse(commandLine.getOptionValue("m")));
+            }
+
+            if (commandLine.hasOption("d")) {
+                strategy.setDuration(Long.parseLong(commandLine.getOptionValue("d")));
+            }
+
+            if (commandLine.hasOption("a")) {
+                strategy.setRates(Arrays.stream(commandLine.getOptionValue("a").split(","))
+                        .map(String::trim).mapToLong(Long::parseLong).toArray());
+            }
+
+            if (commandLine.hasOption("b")) {
+                strategy.setBatchSizes(Arrays.stream(commandLine.getOptionValue("b").split(","))
+                        .map(String::trim).mapToInt(Integer::parseInt).toArray());
+            }
+
+            if (commandLine.hasOption("l")) {
+                strategy.setSamplingInterval(Integer.parseInt(commandLine.getOptionValue("l")));
+            }
+
+            if (commandLine.hasOption("i")) {
+                strategy.setSeriesInterval(Integer.parseInt(commandLine.getOptionValue("i")));
+            }
+
+            if (commandLine.hasOption("g")) {
+                strategy.setTrackingGaps(true);
+            }
+
+            if (commandLine.hasOption("S")) {
+                strategy.setSweep(Sweep.parse(commandLine.getOptionValue("S")));
+            }
+
+            if (commandLine.hasOption("T")) {
+                strategy.setMaxThreads(Integer.parseInt(commandLine.getOptionValue("T")));
+            }
+
+            if (commandLine.hasOption("k")) {
+                strategy.setWorkload(WorkloadType.parse(commandLine.getOptionValue("k")));
+            }
+
+            if (commandLine.hasOption("K")) {
+                strategy.setWorkloadSizes(Arrays.stream(commandLine.getOptionValue("K").split(","))
+                        .map(String::trim).mapToInt(Integer::parseInt).toArray());
+            }
+
+            if (commandLine.hasOption("o")) {
+                strategy.setOutput(commandLine.getOptionValue("o"));
+            }
+
+            if (commandLine.hasOption("B")) {
+                strategy.setBaseline(commandLine.getOptionValue("B"));
+            }
+
+            if (commandLine.hasOption("X")) {
+                strategy.setTolerance(Integer.parseInt(commandLine.getOptionValue("X")));
+            }
+
+            if (commandLine.hasOption("I")) {
+                strategy.setInstrumented(true);
+            }
+
+            if (commandLine.hasOption("V")) {
+                strategy.setVirtual(true);
+            }
+
+            if (commandLine.hasOption("e")) {
+                strategy.setRecordingEvents(true);
+            }
+
+            if (commandLine.hasOption("E")) {
+                strategy.setJfrDirectory(commandLine.getOptionValue("E"));
+            }
+
+            if (commandLine.hasOption("f")) {
+                strategy.setFork(Fork.parse(commandLine.getOptionValue("f")));
+            }
+
+            if (commandLine.hasOption("j")) {
+                strategy.setJvmArgs(commandLine.getOptionValue("j").trim().split("\\s+"));
+            }
+
+            if (commandLine.hasOption("c")) {
+                strategy.setCounters(Arrays.stream(commandLine.getOptionValue("c").split(","))
+                        .map(String::trim).map(Counter::parse).toArray(Counter[]::new));
+            }
+
+            if (commandLine.hasOption("P")) {
+                strategy.setCampaign(commandLine.getOptionValue("P"));
+            }
+
+            if (commandLine.hasOption("H")) {
+                String value = commandLine.getOptionValue("H").trim();
+                strategy.setHandOffs(value.equalsIgnoreCase("all") ? HandOff.values()
+                        : Arrays.stream(value.split(",")).map(String::trim).map(HandOff::parse)
+                        .toArray(HandOff[]::new));
+            }
+
+            strategy.validate();
         } catch (ParseException | IllegalArgumentException e) {
             e.printStackTrace();
             printHelpString();
@@ -102,6 +609,21 @@ public class Strategy {
         return Optional.of(strategy);
     }
 
+    /**
+     * Check the options which depend on each other once all of them are set, whichever is parsed first.
+     */
+    private void validate() {
+        // the results of a campaign are only worth anything in one file
+        if (this.campaign != null && this.output == null) {
+            throw new IllegalArgumentException(campaignDesc);
+        }
+
+        // the consumers never reach a target, and a mixed thread has no side of the queue
+        if (this.handOffs.length > 0 && this.mode != Mode.Throughput) {
+            throw new IllegalArgumentException(handOffsDesc);
+        }
+    }
+
     private static void printHelpString() {
         HelpFormatter helpFormatter = new HelpFormatter();
         helpFormatter.printHelp("java -jar locksbenchmark-1.0.jar", options);
@@ -143,7 +665,52 @@ public class Strategy {
         this.writerThreads = writerThreads;
     }
 
+    public int getMixedThreads() {
+        return mixedThreads;
+    }
+
+    private void setMixedThreads(int mixedThreads) {
+        if ((mixedThreads < MIN_MIXED_THREADS) || (mixedThreads > MAX_MIXED_THREADS)) {
+            throw new IllegalArgumentException(mixedThreadsDesc);
+        }
+
+        this.mixedThreads = mixedThreads;
+    }
+
+    /**
+     * The read ratio of the mixed threads, the first one if there are several.
+     */
+    public double getReadRatio() {
+        return readRatios[0];
+    }
+
+    public double[] getReadRatios() {
+        return readRatios.clone();
+    }
+
+    private void setReadRatios(double[] readRatios) {
+        if (readRatios.length == 0) {
+            throw new IllegalArgumentException(readRatiosDesc);
+        }
+
+        for (double readRatio : readRatios) {
+            // written this way to reject NaN as well
+            if (!((readRatio >= MIN_READ_RATIO) && (readRatio <= MAX_READ_RATIO))) {
+                throw new IllegalArgumentException(readRatiosDesc);
+            }
+        }
+
+        this.readRatios = readRatios.clone();
+    }
+
+    /**
+     * The number of threads in a round: the mixed threads in mixed mode, the readers and writers otherwise.
+     */
     public int getTotalThreads() {
+        if (this.mode == Mode.Mixed) {
+            return this.mixedThreads;
+        }
+
         return this.readerThreads + this.writerThreads;
     }
 
@@ -159,14 +726,477 @@ public class Strategy {
         this.rounds = rounds;
     }
 
+    public int getWarmupRounds() {
+        return warmupRounds;
+    }
+
+    private void setWarmupRounds(int warmupRounds) {
+        if ((warmupRounds < MIN_WARMUP_ROUNDS) || (warmupRounds > MAX_WARMUP_ROUNDS)) {
+            throw new IllegalArgumentException(warmupRoundsDesc);
+        }
+
+        this.warmupRounds = warmupRounds;
+    }
+
+    /**
+     * The max coefficient of variation(%) of a stable result.
+     */
+    public int getMaxVariation() {
+        return maxVariation;
+    }
+
+    private void setMaxVariation(int maxVariation) {
+        if ((maxVariation < MIN_MAX_VARIATION) || (maxVariation > MAX_MAX_VARIATION)) {
+            throw new IllegalArgumentException(maxVariationDesc);
+        }
+
+        this.maxVariation = maxVariation;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    private void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public long getDuration() {
+        return duration;
+    }
+
+    private void setDuration(long duration) {
+        if ((duration < MIN_DURATION) || (duration > MAX_DURATION)) {
+            throw new IllegalArgumentException(durationDesc);
+        }
+
+        this.duration = duration;
+    }
+
+    /**
+     * The rate(ops/s) of every writer in openloop mode, the first one if there are several.
+     */
+    public long getRate() {
+        return rates[0];
+    }
+
+    public long[] getRates() {
+        return rates.clone();
+    }
+
+    private void setRates(long[] rates) {
+        if (rates.length == 0) {
+            throw new IllegalArgumentException(ratesDesc);
+        }
+
+        for (long rate : rates) {
+            if ((rate < MIN_RATE) || (rate > MAX_RATE)) {
+                throw new IllegalArgumentException(ratesDesc);
+            }
+        }
+
+        this.rates = rates.clone();
+    }
+
+    /**
+     * The increments buffered by every writer per add(), the first one if there are several. 1 calls increment().
+     */
+    public int getBatchSize() {
+        return batchSizes[0];
+    }
+
+    public int[] getBatchSizes() {
+        return batchSizes.clone();
+    }
+
+    private void setBatchSizes(int[] batchSizes) {
+        if (batchSizes.length == 0) {
+            throw new IllegalArgumentException(batchSizesDesc);
+        }
+
+        for (int batchSize : batchSizes) {
+            if ((batchSize < MIN_BATCH_SIZE) || (batchSize > MAX_BATCH_SIZE)) {
+                throw new IllegalArgumentException(batchSizesDesc);
+            }
+        }
+
+        this.batchSizes = batchSizes.clone();
+    }
+
+    public int getSamplingInterval() {
+        return samplingInterval;
+    }
+
+    private void setSamplingInterval(int samplingInterval) {
+        if ((samplingInterval < MIN_SAMPLING_INTERVAL) || (samplingInterval > MAX_SAMPLING_INTERVAL)) {
+            throw new IllegalArgumentException(samplingIntervalDesc);
+        }
+
+        this.samplingInterval = samplingInterval;
+    }
+
+    /**
+     * The interval(ms) of the throughput samples taken while a round runs, 0 if there are none.
+     */
+    public int getSeriesInterval() {
+        return seriesInterval;
+    }
+
+    private void setSeriesInterval(int seriesInterval) {
+        if ((seriesInterval < MIN_SERIES_INTERVAL) || (seriesInterval > MAX_SERIES_INTERVAL)) {
+            throw new IllegalArgumentException(seriesIntervalDesc);
+        }
+
+        this.seriesInterval = seriesInterval;
+    }
+
+    /**
+     * Whether every thread takes the time of every operation to find its longest gap.
+     */
+    public boolean isTrackingGaps() {
+        return trackingGaps;
+    }
+
+    private void setTrackingGaps(boolean trackingGaps) {
+        this.trackingGaps = trackingGaps;
+    }
+
+    public Sweep getSweep() {
+        return sweep;
+    }
+
+    private void setSweep(Sweep sweep) {
+        this.sweep = sweep;
+    }
+
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    private void setMaxThreads(int maxThreads) {
+        if ((maxThreads < MIN_MAX_THREADS) || (maxThreads > MAX_MAX_THREADS)) {
+            throw new IllegalArgumentException(maxThreadsDesc);
+        }
+
+        this.maxThreads = maxThreads;
+    }
+
+    public WorkloadType getWorkload() {
+        return workload;
+    }
+
+    private void setWorkload(WorkloadType workload) {
+        this.workload = workload;
+    }
+
+    /**
+     * The size of the workload, the first one if there are several.
+     */
+    public int getWorkloadSize() {
+        return workloadSizes[0];
+    }
+
+    public int[] getWorkloadSizes() {
+        return workloadSizes.clone();
+    }
+
+    private void setWorkloadSizes(int[] workloadSizes) {
+        if (workloadSizes.length == 0) {
+            throw new IllegalArgumentException(workloadSizesDesc);
+        }
+
+        for (int workloadSize : workloadSizes) {
+            if ((workloadSize < MIN_WORKLOAD_SIZE) || (workloadSize > MAX_WORKLOAD_SIZE)) {
+                throw new IllegalArgumentException(workloadSizesDesc);
+            }
+        }
+
+        this.workloadSizes = workloadSizes.clone();
+    }
+
+    /**
+     * The results file, or null if the results are only printed.
+     */
+    public String getOutput() {
+        return output;
+    }
+
+    private void setOutput(String output) {
+        this.output = output;
+    }
+
+    /**
+     * The results file to compare with, or null if there is nothing to compare.
+     */
+    public String getBaseline() {
+        return baseline;
+    }
+
+    private void setBaseline(String baseline) {
+        this.baseline = baseline;
+    }
+
+    public int getTolerance() {
+        return tolerance;
+    }
+
+    private void setTolerance(int tolerance) {
+        if ((tolerance < MIN_TOLERANCE) || (tolerance > MAX_TOLERANCE)) {
+            throw new IllegalArgumentException(toleranceDesc);
+        }
+
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Whether the contention is counted, see {@link Contention}.
+     */
+    public boolean isInstrumented() {
+        return instrumented;
+    }
+
+    private void setInstrumented(boolean instrumented) {
+        this.instrumented = instrumented;
+    }
+
+    /**
+     * Whether the tasks run on virtual threads instead of platform threads.
+     */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    private void setVirtual(boolean virtual) {
+        if (virtual && !VirtualThreads.isAvailable()) {
+            throw new IllegalArgumentException(virtualDesc);
+        }
+
+        this.virtual = virtual;
+    }
+
+    /**
+     * Whether a flight recording summarizes the runtime events of every round, see {@link EventRecorder}.
+     */
+    public boolean isRecordingEvents() {
+        return recordingEvents;
+    }
+
+    private void setRecordingEvents(boolean recordingEvents) {
+        if (recordingEvents && !FlightRecording.isAvailable()) {
+            throw new IllegalArgumentException(recordingEventsDesc);
+        }
+
+        this.recordingEvents = recordingEvents;
+    }
+
+    /**
+     * Where to keep the flight recordings, or null to delete them.
+     */
+    public String getJfrDirectory() {
+        return jfrDirectory;
+    }
+
+    private void setJfrDirectory(String jfrDirectory) {
+        setRecordingEvents(true);
+        this.jfrDirectory = jfrDirectory;
+    }
+
+    public Fork getFork() {
+        return fork;
+    }
+
+    private void setFork(Fork fork) {
+        this.fork = fork;
+    }
+
+    /**
+     * The JVM flags of the forked JVMs besides those of this JVM.
+     */
+    public List<String> getJvmArgs() {
+        return Arrays.asList(jvmArgs.clone());
+    }
+
+    private void setJvmArgs(String[] jvmArgs) {
+        this.jvmArgs = Arrays.stream(jvmArgs).filter(arg -> !arg.isEmpty()).toArray(String[]::new);
+    }
+
+    /**
+     * The counters to measure in the order of their declaration, all of them by default.
+     */
+    public List<Counter> getCounters() {
+        return Arrays.asList(counters.clone());
+    }
+
+    private void setCounters(Counter[] counters) {
+        if (counters.length == 0) {
+            throw new IllegalArgumentException(countersDesc);
+        }
+
+        this.counters = Arrays.stream(counters).distinct().sorted().toArray(Counter[]::new);
+    }
+
+    /**
+     * The properties file of a campaign, or null if this is a single run.
+     */
+    public String getCampaign() {
+        return campaign;
+    }
+
+    private void setCampaign(String campaign) {
+        this.campaign = campaign;
+    }
+
+    /**
+     * Whether the hand-offs are measured instead of the counters.
+     */
+    public boolean isHandOff() {
+        return handOffs.length > 0;
+    }
+
+    /**
+     * The hand-offs to measure in the order of their declaration, none unless they are given.
+     */
+    public List<HandOff> getHandOffs() {
+        return Arrays.asList(handOffs.clone());
+    }
+
+    private void setHandOffs(HandOff[] handOffs) {
+        if (handOffs.length == 0) {
+            throw new IllegalArgumentException(handOffsDesc);
+        }
+
+        this.handOffs = Arrays.stream(handOffs).distinct().sorted().toArray(HandOff[]::new);
+    }
+
+    /**
+     * The option of the given short or long name, or null if there is none.
+     */
+    static Option option(String name) {
+        return options.getOption(name);
+    }
+
+    /**
+     * The command line before any of its values is checked.
+     */
+    static CommandLine parse(String[] args) throws ParseException {
+        return new DefaultParser().parse(options, args);
+    }
+
+    /**
+     * The parameters which affect the results, in the order of the command line help.
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("readerThreads", readerThreads);
+        map.put("writerThreads", writerThreads);
+        map.put("mixedThreads", mixedThreads);
+        map.put("readRatio", getReadRatio());
+        map.put("rounds", rounds);
+        map.put("warmupRounds", warmupRounds);
+        map.put("mode", mode.name().toLowerCase());
+        map.put("targetValue", targetValue);
+        map.put("duration", duration);
+        map.put("rate", getRate());
+        map.put("batchSize", getBatchSize());
+        map.put("samplingInterval", samplingInterval);
+        map.put("seriesInterval", seriesInterval);
+        map.put("trackingGaps", trackingGaps);
+        map.put("maxVariation", maxVariation);
+        map.put("workload", workload.name().toLowerCase());
+        map.put("workloadSize", workload == WorkloadType.None ? 0 : getWorkloadSize());
+        map.put("virtual", virtual);
+        map.put("fork", fork.name().toLowerCase());
+        return map;
+    }
+
     @Override
     public String toString() {
-        return String.format(
-                "Reader threads: %d, writer threads: %d, rounds: %d, target value: %d",
-                this.readerThreads,
-                this.writerThreads,
-                this.rounds,
-                this.targetValue
-        );
+        StringBuilder builder = new StringBuilder();
+        if (this.mode == Mode.Mixed) {
+            builder.append(String.format("Mixed threads: %d, read ratio: %s, rounds: %d",
+                    this.mixedThreads,
+                    Arrays.stream(this.readRatios).mapToObj(String::valueOf).collect(Collectors.joining(", ")),
+                    this.rounds));
+        } else {
+            builder.append(String.format("Reader threads: %d, writer threads: %d, rounds: %d",
+                    this.readerThreads,
+                    this.writerThreads,
+                    this.rounds));
+        }
+
+        if (this.warmupRounds > 0) {
+            builder.append(String.format(", warmup rounds: %d", this.warmupRounds));
+        }
+
+        if (this.mode.isTimed()) {
+            builder.append(String.format(", mode: %s, duration(ms): %d",
+                    this.mode.name().toLowerCase(), this.duration));
+        } else {
+            builder.append(String.format(", target value: %d", this.targetValue));
+        }
+
+        if (this.mode == Mode.OpenLoop) {
+            builder.append(String.format(", rate(ops/s per writer): %s",
+                    Arrays.stream(this.rates).mapToObj(String::valueOf).collect(Collectors.joining(", "))));
+        }
+
+        if (this.batchSizes.length > 1 || getBatchSize() > 1) {
+            builder.append(String.format(", batch: %s",
+                    Arrays.stream(this.batchSizes).mapToObj(String::valueOf).collect(Collectors.joining(", "))));
+        }
+
+        if (this.samplingInterval > 0) {
+            builder.append(String.format(", latency sampling: 1/%d", this.samplingInterval));
+        }
+
+        if (this.seriesInterval > 0) {
+            builder.append(String.format(", series: every %d ms", this.seriesInterval));
+        }
+
+        if (this.trackingGaps) {
+            builder.append(", gaps");
+        }
+
+        if (this.workload != WorkloadType.None) {
+            builder.append(String.format(", workload: %s(%s)", this.workload.name().toLowerCase(),
+                    Arrays.stream(this.workloadSizes).mapToObj(String::valueOf).collect(Collectors.joining(", "))));
+        }
+
+        if (this.sweep != Sweep.None) {
+            builder.append(String.format(", sweep: %s up to %d threads",
+                    this.sweep.name().toLowerCase(), this.maxThreads));
+        }
+
+        if (this.instrumented) {
+            builder.append(", instrumented");
+        }
+
+        if (this.virtual) {
+            builder.append(", virtual threads");
+        }
+
+        if (this.recordingEvents) {
+            builder.append(", runtime events");
+            if (this.jfrDirectory != null) {
+                builder.append(String.format(" kept in %s", this.jfrDirectory));
+            }
+        }
+
+        if (this.handOffs.length > 0) {
+            builder.append(String.format(", hand-off: %s", Arrays.stream(this.handOffs)
+                    .map(handOff -> handOff.name().toLowerCase()).collect(Collectors.joining(", "))));
+        } else if (this.counters.length < Counter.values().length) {
+            builder.append(String.format(", counters: %s", Arrays.stream(this.counters)
+                    .map(counter -> counter.name().toLowerCase()).collect(Collectors.joining(", "))));
+        }
+
+        if (this.fork != Fork.None) {
+            builder.append(String.format(", fork: %s", this.fork.name().toLowerCase()));
+            if (this.jvmArgs.length > 0) {
+                builder.append(String.format(" with %s", String.join(" ", this.jvmArgs)));
+            }
+        }
+
+        return builder.toString();
     }
 }
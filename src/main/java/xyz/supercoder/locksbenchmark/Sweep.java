@@ -0,0 +1,114 @@
+package xyz.supercoder.locksbenchmark;
+
+import java.util.Arrays;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Which threads are stepped through 1, 2, 4 ... in a scaling sweep.
+ */
+public enum Sweep {
+
+    None() {
+        @Override
+        public Strategy apply(Strategy strategy, int threads) {
+            return strategy;
+        }
+
+        @Override
+        public long throughputOf(Result result) {
+            return result.getThroughput();
+        }
+    },
+
+    Readers() {
+        @Override
+        public Strategy apply(Strategy strategy, int threads) {
+            return strategy.withThreads(threads, strategy.getWriterThreads());
+        }
+
+        @Override
+        public long throughputOf(Result result) {
+            return result.getReadThroughput();
+        }
+    },
+
+    Writers() {
+        @Override
+        public Strategy apply(Strategy strategy, int threads) {
+            return strategy.withThreads(strategy.getReaderThreads(), threads);
+        }
+
+        @Override
+        public long throughputOf(Result result) {
+            return result.getWriteThroughput();
+        }
+    },
+
+    Both() {
+        @Override
+        public Strategy apply(Strategy strategy, int threads) {
+            return strategy.withThreads(threads, threads);
+        }
+
+        @Override
+        public long throughputOf(Result result) {
+            return result.getThroughput();
+        }
+    };
+
+    /**
+     * The strategy with the swept threads set to the given number.
+     */
+    public abstract Strategy apply(Strategy strategy, int threads);
+
+    /**
+     * The throughput of the swept threads.
+     */
+    public abstract long throughputOf(Result result);
+
+    /**
+     * The powers of two up to maxThreads, plus the number of processors and maxThreads itself.
+     */
+    public static int[] steps(int maxThreads) {
+        TreeSet<Integer> steps = new TreeSet<>();
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            steps.add(threads);
+        }
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        if (processors <= maxThreads) {
+            steps.add(processors);
+        }
+
+        steps.add(maxThreads);
+        return steps.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * The throughput against n times the throughput of a single thread.
+     */
+    public static double efficiency(long throughput, long singleThreadThroughput, int threads) {
+        if (singleThreadThroughput <= 0) {
+            return 0;
+        }
+
+        return (double) throughput / ((double) singleThreadThroughput * threads);
+    }
+
+    public static Sweep parse(String name) {
+        for (Sweep sweep : values()) {
+            if (sweep.name().equalsIgnoreCase(name)) {
+                return sweep;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown sweep: " + name + ", MUST be one of " + names());
+    }
+
+    public static String names() {
+        return Arrays.stream(values())
+                .map(sweep -> sweep.name().toLowerCase())
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+}
@@ -0,0 +1,29 @@
+package xyz.supercoder.locksbenchmark;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Test-and-set: every waiting thread keeps swapping the flag, so every attempt takes the cache line exclusively.
+ */
+class TASLock implements SpinLock {
+
+    private final AtomicBoolean locked = new AtomicBoolean();
+
+    @Override
+    public void lock() {
+        int spins = 0;
+        while (locked.getAndSet(true)) {
+            spins = Spin.onSpinWait(spins);
+        }
+    }
+
+    @Override
+    public boolean tryLock() {
+        return !locked.getAndSet(true);
+    }
+
+    @Override
+    public void unlock() {
+        locked.set(false);
+    }
+}
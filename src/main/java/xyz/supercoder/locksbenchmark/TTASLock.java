@@ -0,0 +1,48 @@
+package xyz.supercoder.locksbenchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Test-and-test-and-set: the waiting threads spin on their cached copy of the flag, and only try to swap it
+ * once it looks free. A thread which loses the swap backs off for a random time, whose limit doubles up to
+ * {@link #MAX_BACKOFF} spins, so the losers do not all come back at once.
+ */
+class TTASLock implements SpinLock {
+
+    private static final int MIN_BACKOFF = 1 << 4;
+    private static final int MAX_BACKOFF = 1 << 12;
+
+    private final AtomicBoolean locked = new AtomicBoolean();
+
+    @Override
+    public void lock() {
+        int backoff = MIN_BACKOFF;
+        int spins = 0;
+        while (true) {
+            while (locked.get()) {
+                spins = Spin.onSpinWait(spins);
+            }
+
+            if (!locked.getAndSet(true)) {
+                return;
+            }
+
+            for (int delay = ThreadLocalRandom.current().nextInt(backoff); delay > 0; delay--) {
+                Spin.onSpinWait();
+            }
+
+            backoff = Math.min(backoff << 1, MAX_BACKOFF);
+        }
+    }
+
+    @Override
+    public boolean tryLock() {
+        return !locked.get() && !locked.getAndSet(true);
+    }
+
+    @Override
+    public void unlock() {
+        locked.set(false);
+    }
+}
@@ -0,0 +1,41 @@
+package xyz.supercoder.locksbenchmark;
+
+/**
+ * The work of one thread in a round. The counts and latencies are only valid after the thread has finished.
+ *
+ * A task given a progress slot also publishes its count of operations there after every operation,
+ * for the {@link Sampler} which reads it while the round runs.
+ */
+interface Task extends Runnable {
+
+    /**
+     * The number of get() calls of this thread.
+     */
+    long getReadOperations();
+
+    /**
+     * The number of increment() calls of this thread.
+     */
+    long getWriteOperations();
+
+    /**
+     * The sampled latencies(ns) of get(), or null if sampling is disabled or this thread never reads.
+     */
+    Histogram getReadLatency();
+
+    /**
+     * The sampled latencies(ns) of increment(), or null if sampling is disabled or this thread never writes.
+     */
+    Histogram getWriteLatency();
+
+    /**
+     * The longest time(ns) between two operations of this thread, or from its last one to the end of the round,
+     * -1 if the gaps are not tracked.
+     */
+    long getLongestGap();
+
+    /**
+     * The contention seen by this thread, or null if it is not collected.
+     */
+    Contention getContention();
+}
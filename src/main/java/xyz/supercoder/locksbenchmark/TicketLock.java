@@ -0,0 +1,34 @@
+package xyz.supercoder.locksbenchmark;
+
+/**
+ * A fair lock: every thread takes the next ticket and waits until it is served. The two counters are padded,
+ * so taking a ticket does not disturb the threads which spin on the one being served.
+ */
+class TicketLock implements SpinLock {
+
+    private final PaddedLong nextTicket = new PaddedLong();
+
+    private final PaddedLong nowServing = new PaddedLong();
+
+    @Override
+    public void lock() {
+        long ticket = nextTicket.incrementAndGet() - 1;
+        int spins = 0;
+        while (nowServing.get() != ticket) {
+            spins = Spin.onSpinWait(spins);
+        }
+    }
+
+    @Override
+    public boolean tryLock() {
+        // take the ticket being served, which only succeeds when there is no owner and no queue
+        long ticket = nowServing.get();
+        return nextTicket.compareAndSet(ticket, ticket + 1);
+    }
+
+    @Override
+    public void unlock() {
+        // only the owner writes the counter being served
+        nowServing.set(nowServing.get() + 1);
+    }
+}
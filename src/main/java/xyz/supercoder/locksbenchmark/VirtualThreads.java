@@ -0,0 +1,46 @@
+package xyz.supercoder.locksbenchmark;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Virtual threads since java21, looked up by reflection so the code still builds and runs on java8.
+ */
+public class VirtualThreads {
+
+    // Thread.ofVirtual().name("benchmark-virtual-", 0).factory(), or null before java21
+    private static final ThreadFactory FACTORY = findFactory();
+
+    private VirtualThreads() {
+        // util class, can not be instanced
+    }
+
+    public static boolean isAvailable() {
+        return FACTORY != null;
+    }
+
+    /**
+     * A factory of virtual threads.
+     *
+     * @throws UnsupportedOperationException Before java21
+     */
+    public static ThreadFactory factory() {
+        if (FACTORY == null) {
+            throw new UnsupportedOperationException("Virtual threads need java21 or later");
+        }
+
+        return FACTORY;
+    }
+
+    private static ThreadFactory findFactory() {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class)
+                    .invoke(builder, "benchmark-virtual-", 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package xyz.supercoder.locksbenchmark;
+
+/**
+ * The work done inside the critical section of a {@link Counter}, besides the value itself.
+ *
+ * A workload is only touched while the counter holds its lock: {@link #read()} under the read
+ * lock, {@link #write()} under the write lock, so an implementation needs no synchronization
+ * of its own. Instances are created by {@link WorkloadType} for each measured counter.
+ *
+ * A copy-on-write counter never locks, it writes a {@link #copy()} and publishes it,
+ * a published workload is only read.
+ */
+public interface Workload {
+
+    Workload NONE = new Workload() {
+        @Override
+        public long read() {
+            return 0;
+        }
+
+        @Override
+        public void write() {
+            // nothing to do
+        }
+
+        @Override
+        public Workload copy() {
+            return this;
+        }
+    };
+
+    /**
+     * Runs inside the read critical section.
+     *
+     * @return Anything derived from the read state, pass it to {@link #consume(long)}
+     */
+    long read();
+
+    /**
+     * Runs inside the write critical section.
+     */
+    void write();
+
+    /**
+     * A new workload with the same state, which can be written without touching this one.
+     */
+    Workload copy();
+
+    /**
+     * Check the result of a read section which is used, e.g. after the optimistic read was validated.
+     *
+     * @return The given result of {@link #read()}
+     */
+    default long checked(long read) {
+        return read;
+    }
+
+    /**
+     * The number of checked reads which saw a write half done, they should never happen.
+     */
+    default long getTornReads() {
+        return 0;
+    }
+
+    /**
+     * Keep the JIT from eliminating a read whose result is never used.
+     */
+    static void consume(long value) {
+        if (value == Sink.SENTINEL) {
+            Sink.value = value;
+        }
+    }
+
+    final class Sink {
+        // an unlikely value, the branch is never taken but can not be proven dead
+        private static final long SENTINEL = 0x5ca1ab1e_deadbeefL;
+
+        private static volatile long value;
+
+        private Sink() {
+            // util class, can not be instanced
+        }
+    }
+}
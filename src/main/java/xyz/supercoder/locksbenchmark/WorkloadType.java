@@ -0,0 +1,216 @@
+package xyz.supercoder.locksbenchmark;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * The built-in workloads, the size means something different for each of them.
+ */
+public enum WorkloadType {
+
+    /**
+     * Nothing but the value itself, the default.
+     */
+    None() {
+        @Override
+        public Workload create(int size) {
+            return Workload.NONE;
+        }
+    },
+
+    /**
+     * Spin for size nanoseconds in both sections.
+     */
+    Busy() {
+        @Override
+        public Workload create(int size) {
+            return new Workload() {
+                @Override
+                public long read() {
+                    return spin();
+                }
+
+                @Override
+                public void write() {
+                    spin();
+                }
+
+                // System.nanoTime() can never be optimized away, so neither can the loop
+                private long spin() {
+                    long deadline = System.nanoTime() + size;
+                    long iterations = 0;
+                    while (System.nanoTime() < deadline) {
+                        iterations++;
+                    }
+
+                    return iterations;
+                }
+
+                @Override
+                public Workload copy() {
+                    return this;
+                }
+            };
+        }
+    },
+
+    /**
+     * A HashMap of size entries, get() in the read section and put() in the write section.
+     */
+    Map() {
+        @Override
+        public Workload create(int size) {
+            // the keys and values are boxed up front, so no section allocates
+            Long[] keys = new Long[size];
+            Map<Long, Long> map = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                keys[i] = (long) i;
+                map.put(keys[i], keys[i]);
+            }
+
+            return mapWorkload(keys, map, 0);
+        }
+    },
+
+    /**
+     * Two arrays of size longs, the write section copies one into the other,
+     * the read section sums the copy.
+     */
+    Copy() {
+        @Override
+        public Workload create(int size) {
+            return copyWorkload(new long[size], new long[size]);
+        }
+    },
+
+    /**
+     * A record of size longs which the write section sets to the next version as a unit,
+     * the read section checks that all of them have the same version.
+     */
+    Record() {
+        @Override
+        public Workload create(int size) {
+            return recordWorkload(new long[size], new LongAdder());
+        }
+    };
+
+    // the result of a read which saw two versions, the versions themselves are never negative
+    private static final long TORN = -1;
+
+    /**
+     * A new workload with its own state, for one counter.
+     */
+    public abstract Workload create(int size);
+
+    private static Workload mapWorkload(Long[] keys, Map<Long, Long> map, int start) {
+        int size = keys.length;
+        return new Workload() {
+            private int cursor = start;
+
+            @Override
+            public long read() {
+                Long value = map.get(keys[cursor]);
+                return value == null ? 0 : value;
+            }
+
+            @Override
+            public void write() {
+                cursor = (cursor + 1) % size;
+                map.put(keys[cursor], keys[(cursor + size / 2) % size]);
+            }
+
+            @Override
+            public Workload copy() {
+                return mapWorkload(keys, new HashMap<>(map), cursor);
+            }
+        };
+    }
+
+    private static Workload copyWorkload(long[] source, long[] target) {
+        int size = source.length;
+        return new Workload() {
+            @Override
+            public long read() {
+                long sum = 0;
+                for (long value : target) {
+                    sum += value;
+                }
+
+                return sum;
+            }
+
+            @Override
+            public void write() {
+                source[0]++;
+                System.arraycopy(source, 0, target, 0, size);
+            }
+
+            @Override
+            public Workload copy() {
+                return copyWorkload(source.clone(), target.clone());
+            }
+        };
+    }
+
+    // the copies of a record share the count of torn reads
+    private static Workload recordWorkload(long[] record, LongAdder tornReads) {
+        return new Workload() {
+            @Override
+            public long read() {
+                // comparing every long with the first costs as much as copying them, without allocating
+                long version = record.length > 0 ? record[0] : 0;
+                for (int i = 1; i < record.length; i++) {
+                    if (record[i] != version) {
+                        return TORN;
+                    }
+                }
+
+                return version;
+            }
+
+            @Override
+            public void write() {
+                long version = record.length > 0 ? record[0] + 1 : 0;
+                Arrays.fill(record, version);
+            }
+
+            @Override
+            public Workload copy() {
+                return recordWorkload(record.clone(), tornReads);
+            }
+
+            @Override
+            public long checked(long read) {
+                if (read == TORN) {
+                    tornReads.increment();
+                }
+
+                return read;
+            }
+
+            @Override
+            public long getTornReads() {
+                return tornReads.sum();
+            }
+        };
+    }
+
+    public static WorkloadType parse(String name) {
+        for (WorkloadType type : values()) {
+            if (type.name().equalsIgnoreCase(name)) {
+                return type;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown workload: " + name + ", MUST be one of " + names());
+    }
+
+    public static String names() {
+        return Arrays.stream(values())
+                .map(type -> type.name().toLowerCase())
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+}
@@ -1,39 +1,165 @@
 package xyz.supercoder.locksbenchmark;
 
-import java.util.concurrent.BrokenBarrierException;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.CyclicBarrier;
-
-public class Writer implements Runnable {
+public class Writer implements Task {
 
     private final Counter counter;
 
-    private final CyclicBarrier startWorkingBarrier;
+    private final Round round;
+
+    private final int samplingInterval;
+
+    private final int batchSize;
+
+    private final Histogram latency;
+
+    private final boolean trackingGaps;
 
-    private final CountDownLatch stopWorkingLatch;
+    private final PaddedLong progress;
+
+    private long operations;
+
+    private long longestGap = -1;
+
+    private Contention contention;
 
     Writer(Counter counter,
-           CyclicBarrier startWorkingBarrier,
-           CountDownLatch stopWorkingLatch) {
+           Round round,
+           int samplingInterval,
+           int batchSize,
+           boolean trackingGaps,
+           PaddedLong progress) {
         this.counter = counter;
+        this.round = round;
 
-        this.startWorkingBarrier = startWorkingBarrier;
-        this.stopWorkingLatch = stopWorkingLatch;
+        this.samplingInterval = samplingInterval;
+        this.batchSize = batchSize;
+        this.trackingGaps = trackingGaps;
+        this.progress = progress;
+        this.latency = samplingInterval > 0 ? new Histogram() : null;
     }
 
     public void run() {
+        if (Contention.ENABLED) {
+            Contention.current().reset();
+        }
+
+        round.arrive();
         try {
-            startWorkingBarrier.await();
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        } catch (BrokenBarrierException e) {
-            e.printStackTrace();
+            if (batchSize > 1) {
+                workBatched();
+            } else {
+                work();
+            }
+        } finally {
+            if (Contention.ENABLED) {
+                this.contention = Contention.current().copy();
+            }
+
+            round.finish();
         }
+    }
+
+    private void work() {
+        // count in a local variable, the writers must not share a cache line while working
+        long operations = 0;
+        long untilSample = firstSample();
+        Gaps gaps = trackingGaps ? new Gaps() : null;
+        while (!round.isStopped()) {
+            if (--untilSample == 0) {
+                untilSample = samplingInterval;
+                long start = System.nanoTime();
+                counter.increment();
+                latency.record(System.nanoTime() - start);
+            } else {
+                counter.increment();
+            }
 
-        while (!Thread.interrupted()) {
-            counter.increment();
+            operations++;
+            if (gaps != null) {
+                gaps.operated();
+            }
+
+            if (progress != null) {
+                progress.lazySet(operations);
+            }
         }
 
-        stopWorkingLatch.countDown();
+        this.operations = operations;
+        this.longestGap = gaps != null ? gaps.finish() : -1;
+    }
+
+    // buffer the increments and publish them by one add(), the latency and the gaps are taken per add()
+    private void workBatched() {
+        long operations = 0;
+        int pending = 0;
+        long untilSample = firstSample();
+        Gaps gaps = trackingGaps ? new Gaps() : null;
+        while (!round.isStopped()) {
+            operations++;
+            if (++pending < batchSize) {
+                continue;
+            }
+
+            pending = 0;
+            if (--untilSample == 0) {
+                untilSample = samplingInterval;
+                long start = System.nanoTime();
+                counter.add(batchSize);
+                latency.record(System.nanoTime() - start);
+            } else {
+                counter.add(batchSize);
+            }
+
+            if (gaps != null) {
+                gaps.operated();
+            }
+
+            if (progress != null) {
+                progress.lazySet(operations);
+            }
+        }
+
+        // the rest is published as well, so the counter holds every increment counted
+        if (pending > 0) {
+            counter.add(pending);
+        }
+
+        this.operations = operations;
+        this.longestGap = gaps != null ? gaps.finish() : -1;
+    }
+
+    @Override
+    public long getReadOperations() {
+        return 0;
+    }
+
+    @Override
+    public long getWriteOperations() {
+        return operations;
+    }
+
+    @Override
+    public Histogram getReadLatency() {
+        return null;
+    }
+
+    @Override
+    public Histogram getWriteLatency() {
+        return latency;
+    }
+
+    @Override
+    public long getLongestGap() {
+        return longestGap;
+    }
+
+    @Override
+    public Contention getContention() {
+        return contention;
+    }
+
+    // without sampling, the countdown can never reach 0
+    private long firstSample() {
+        return samplingInterval > 0 ? samplingInterval : Long.MAX_VALUE;
     }
 }
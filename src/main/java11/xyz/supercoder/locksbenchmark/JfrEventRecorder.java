@@ -0,0 +1,135 @@
+package xyz.supercoder.locksbenchmark;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One flight recording over the measured rounds of a counter, whose events are summarized per round
+ * by their start time: an event between two rounds counts into none of them. The monitor enters and
+ * parks only count on the threads of the {@link Harness}, the recorder and the JVM park threads of their own.
+ *
+ * The events are recorded without a threshold, so every contended monitor enter and every park is
+ * written, which costs time of its own. Only compare results recorded like this with each other.
+ */
+class JfrEventRecorder implements EventRecorder {
+
+    private static final String MONITOR_ENTER_EVENT = "jdk.JavaMonitorEnter";
+    private static final String PARK_EVENT = "jdk.ThreadPark";
+    private static final String GC_EVENT = "jdk.GarbageCollection";
+    private static final String SAFEPOINT_EVENT = "jdk.SafepointBegin";
+
+    // the names of the workers and the virtual threads of the harness
+    private static final String THREAD_PREFIX = "benchmark-";
+
+    private final Recording recording = new Recording();
+
+    private final List<Instant> roundStarts = new ArrayList<>();
+
+    private final List<Instant> roundEnds = new ArrayList<>();
+
+    JfrEventRecorder() {
+        for (String event : new String[]{MONITOR_ENTER_EVENT, PARK_EVENT, GC_EVENT, SAFEPOINT_EVENT}) {
+            recording.enable(event).withThreshold(Duration.ZERO);
+        }
+
+        recording.setToDisk(true);
+    }
+
+    @Override
+    public void start() {
+        recording.start();
+    }
+
+    @Override
+    public void round(Instant start, Instant end) {
+        roundStarts.add(start);
+        roundEnds.add(end);
+    }
+
+    @Override
+    public RuntimeEvents[] stop(String directory, String name) {
+        RuntimeEvents[] rounds = new RuntimeEvents[roundStarts.size()];
+        for (int i = 0; i < rounds.length; i++) {
+            rounds[i] = new RuntimeEvents();
+        }
+
+        Path dump = null;
+        try {
+            recording.stop();
+            dump = (directory != null)
+                    ? Files.createTempFile(Files.createDirectories(Paths.get(directory)), name + "-", ".jfr")
+                    : Files.createTempFile("locksbenchmark-events-", ".jfr");
+            recording.dump(dump);
+            if (directory != null) {
+                System.out.println("Flight recording written to " + dump);
+            }
+
+            for (RecordedEvent event : RecordingFile.readAllEvents(dump)) {
+                int round = roundOf(event.getStartTime());
+                if (round >= 0) {
+                    summarize(event, rounds[round]);
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            e.printStackTrace();
+        } finally {
+            recording.close();
+            if (directory == null && dump != null) {
+                dump.toFile().delete();
+            }
+        }
+
+        return rounds;
+    }
+
+    private int roundOf(Instant time) {
+        for (int i = 0; i < roundStarts.size(); i++) {
+            if (!time.isBefore(roundStarts.get(i)) && !time.isAfter(roundEnds.get(i))) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private static boolean isBenchmarkThread(RecordedEvent event) {
+        RecordedThread thread = event.getThread();
+        return thread != null && thread.getJavaName() != null && thread.getJavaName().startsWith(THREAD_PREFIX);
+    }
+
+    private static void summarize(RecordedEvent event, RuntimeEvents events) {
+        long duration = event.getDuration().toNanos();
+        switch (event.getEventType().getName()) {
+            case MONITOR_ENTER_EVENT:
+                if (isBenchmarkThread(event)) {
+                    events.monitorEntered(duration);
+                }
+                break;
+            case PARK_EVENT:
+                if (isBenchmarkThread(event)) {
+                    events.parked(duration);
+                }
+                break;
+            case GC_EVENT:
+                Duration pauses = event.getDuration("sumOfPauses");
+                events.collected(pauses != null ? pauses.toNanos() : duration);
+                break;
+            case SAFEPOINT_EVENT:
+                events.safepointReached(duration);
+                break;
+            default:
+                break;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package xyz.supercoder.locksbenchmark;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Count how often a virtual thread pinned its carrier, from the jdk.VirtualThreadPinned events of a
+ * flight recording. The events are recorded without a threshold, so short pinnings are counted too.
+ */
+class JfrPinningRecorder implements PinningRecorder {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final Recording recording = new Recording();
+
+    private long events;
+
+    private long pinnedTime;
+
+    JfrPinningRecorder() {
+        recording.enable(PINNED_EVENT).withThreshold(Duration.ZERO);
+        recording.setToDisk(true);
+    }
+
+    @Override
+    public void start() {
+        recording.start();
+    }
+
+    @Override
+    public void stop() {
+        Path file = null;
+        try {
+            recording.stop();
+            file = Files.createTempFile("locksbenchmark-pinning-", ".jfr");
+            recording.dump(file);
+            for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+                if (PINNED_EVENT.equals(event.getEventType().getName())) {
+                    events++;
+                    pinnedTime += event.getDuration().toNanos();
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            e.printStackTrace();
+        } finally {
+            recording.close();
+            if (file != null) {
+                file.toFile().delete();
+            }
+        }
+    }
+
+    @Override
+    public long getEvents() {
+        return events;
+    }
+
+    @Override
+    public long getPinnedTime() {
+        return pinnedTime;
+    }
+}
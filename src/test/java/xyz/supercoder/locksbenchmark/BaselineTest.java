@@ -0,0 +1,138 @@
+package xyz.supercoder.locksbenchmark;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class BaselineTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static List<Result> measure() {
+        Strategy strategy = Strategy.parseStrategy(new String[]{"-m", "throughput", "-d", "100", "-l", "10"}).get();
+        return Collections.singletonList(Counter.AtomicLong.measure(strategy));
+    }
+
+    @Test
+    public void testJson() throws IOException {
+        List<Result> results = measure();
+        File file = new File(folder.getRoot(), "results.json");
+        Exporter.export(file.getPath(), results);
+
+        Baseline baseline = Baseline.load(file.getPath());
+        Assert.assertEquals(1, baseline.size());
+        Assert.assertEquals(0, baseline.compare(results, 0));
+    }
+
+    @Test
+    public void testCsv() throws IOException {
+        List<Result> results = measure();
+        File file = new File(folder.getRoot(), "results.csv");
+        Exporter.export(file.getPath(), results);
+
+        List<List<String>> lines = Baseline.splitCsv(Exporter.toCsv(results));
+        Assert.assertEquals(1 + results.get(0).getRounds(), lines.size());
+        Assert.assertTrue(lines.get(0).contains("round.readThroughput"));
+
+        Baseline baseline = Baseline.load(file.getPath());
+        Assert.assertEquals(1, baseline.size());
+        Assert.assertEquals(0, baseline.compare(results, 0));
+    }
+
+    @Test
+    public void testCsvColumns() {
+        // the roles of the fairness differ, the consumers of the second result must keep their column
+        Strategy strategy = Strategy.parseStrategy(new String[]{"-m", "throughput", "-d", "100"}).get();
+        Strategy handOff = Strategy.parseStrategy(new String[]{"-m", "throughput", "-d", "100", "-H", "ringbuffer"})
+                .get();
+        List<Result> results = Arrays.asList(Counter.AtomicLong.measure(strategy), HandOff.RingBuffer.measure(handOff));
+
+        List<List<String>> lines = Baseline.splitCsv(Exporter.toCsv(results));
+        int writers = lines.get(0).indexOf("round.writersOperations");
+        int consumers = lines.get(0).indexOf("round.consumersOperations");
+        Assert.assertTrue(writers >= 0 && consumers >= 0);
+
+        // every line has every column, blank where its result has no such field
+        List<String> first = lines.get(1);
+        List<String> last = lines.get(lines.size() - 1);
+        Assert.assertEquals(lines.get(0).size(), first.size());
+        Assert.assertEquals(lines.get(0).size(), last.size());
+        Assert.assertEquals("", first.get(consumers));
+        Assert.assertFalse(last.get(consumers).isEmpty());
+        Assert.assertEquals("", last.get(writers));
+    }
+
+    @Test
+    public void testCsvBatches() throws IOException {
+        // only a batched result has a publish interval, the unbatched one goes first
+        Strategy strategy = Strategy.parseStrategy(new String[]{"-m", "throughput", "-d", "100", "-b", "1,16"}).get();
+        List<Result> results = Arrays.asList(Counter.AtomicLong.measure(strategy.withBatchSize(1)),
+                Counter.AtomicLong.measure(strategy.withBatchSize(16)));
+        File file = new File(folder.getRoot(), "batches.csv");
+        Exporter.export(file.getPath(), results);
+
+        List<List<String>> lines = Baseline.splitCsv(new String(Files.readAllBytes(file.toPath()),
+                StandardCharsets.UTF_8));
+        int publishInterval = lines.get(0).indexOf("summary.publishInterval");
+        Assert.assertTrue(publishInterval >= 0);
+        Assert.assertEquals("", lines.get(1).get(publishInterval));
+        Assert.assertEquals(String.valueOf(results.get(1).getPublishInterval()),
+                lines.get(lines.size() - 1).get(publishInterval));
+
+        Baseline baseline = Baseline.load(file.getPath());
+        Assert.assertEquals(2, baseline.size());
+        Assert.assertEquals(0, baseline.compare(results, 0));
+    }
+
+    @Test
+    public void testTargets() throws IOException {
+        // the elapsed time of a smaller target is no baseline of a larger one
+        Strategy small = Strategy.parseStrategy(new String[]{"-t", "10000", "-l", "10"}).get();
+        Strategy large = Strategy.parseStrategy(new String[]{"-t", "20000", "-l", "10"}).get();
+        List<Result> results = Arrays.asList(Counter.AtomicLong.measure(small), Counter.AtomicLong.measure(large));
+        File file = new File(folder.getRoot(), "targets.json");
+        Exporter.export(file.getPath(), results.subList(0, 1));
+
+        Baseline baseline = Baseline.load(file.getPath());
+        Assert.assertEquals(1, baseline.size());
+        Assert.assertEquals(0, baseline.compare(results.subList(1, 2), 0));
+
+        Exporter.export(file.getPath(), results);
+        Assert.assertEquals(2, Baseline.load(file.getPath()).size());
+    }
+
+    @Test
+    public void testRegression() throws IOException {
+        List<Result> results = measure();
+        String json = Exporter.toJson(results);
+
+        // pretend the baseline was 10 times faster
+        Map<?, ?> document = (Map<?, ?>) Json.parse(json);
+        Map<?, ?> result = (Map<?, ?>) ((List<?>) document.get("results")).get(0);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> summary = (Map<String, Object>) result.get("summary");
+        summary.put("writeThroughput", ((Double) summary.get("writeThroughput")) * 10);
+
+        File file = new File(folder.getRoot(), "baseline.json");
+        Files.write(file.toPath(), Json.write(document).getBytes(StandardCharsets.UTF_8));
+
+        Assert.assertEquals(1, Baseline.load(file.getPath()).compare(results, 0.1));
+    }
+
+    @Test
+    public void testJsonParse() {
+        Object value = Json.parse("{\"a\": [1, 2.5, \"x\\\"y\"], \"b\": {\"c\": true, \"d\": null}}");
+        Assert.assertEquals("{\"a\":[1.0,2.5,\"x\\\"y\"],\"b\":{\"c\":true,\"d\":null}}",
+                Json.write(value).replaceAll("\\s", ""));
+    }
+}
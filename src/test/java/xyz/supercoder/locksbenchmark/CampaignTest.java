@@ -0,0 +1,92 @@
+package xyz.supercoder.locksbenchmark;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+public class CampaignTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String write(String content) throws IOException {
+        File file = new File(folder.getRoot(), "campaign.properties");
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file.getPath();
+    }
+
+    @Test
+    public void testExpand() throws IOException {
+        String file = write("# the first key varies slowest\nreaders = 1 | 2\ng = false|true\n");
+        List<String[]> runs = Campaign.load(file).expand(new String[]{"-m", "throughput", "-P", file, "-o", "a.json"});
+
+        Assert.assertEquals(4, runs.size());
+        Assert.assertEquals(Arrays.asList("-m", "throughput", "-o", "a.json", "--readers=1"),
+                Arrays.asList(runs.get(0)));
+        Assert.assertEquals(Arrays.asList("-m", "throughput", "-o", "a.json", "--readers=2", "--gaps"),
+                Arrays.asList(runs.get(3)));
+    }
+
+    @Test
+    public void testInvalidCampaign() throws IOException {
+        String conflict = write("readers = 1 | 2\n");
+        String[][] commandLines = {
+                {"-r", "4", "--campaign=" + conflict},
+                {"-r4", "-P", conflict},
+                {"-P", conflict, "--readers", "4"}};
+        for (String[] args : commandLines) {
+            try {
+                Campaign.load(conflict).expand(args);
+                Assert.fail("readers is set twice: " + String.join(" ", args));
+            } catch (IllegalArgumentException e) {
+                Assert.assertTrue(e.getMessage().startsWith("readers"));
+            }
+        }
+
+        for (String content : new String[]{"output = a.json | b.json\n", "speed = 1 | 2\n"}) {
+            String file = write(content);
+            try {
+                Campaign.load(file);
+                Assert.fail(content);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+
+        // the results of a campaign need an output, wherever it is given
+        Assert.assertFalse(Strategy.parseStrategy(new String[]{"-P", conflict}).isPresent());
+        Assert.assertTrue(Strategy.parseStrategy(new String[]{"-P", conflict, "-o", "x.json"}).isPresent());
+        Assert.assertTrue(Strategy.parseStrategy(new String[]{"-o", "x.json", "-P", conflict}).isPresent());
+    }
+
+    @Test
+    public void testCheckpoint() throws IOException {
+        Campaign campaign = Campaign.load(write("writers = 1 | 2\n"));
+        Strategy strategy = Strategy.parseStrategy(new String[]{"-m", "throughput", "-d", "100"}).get();
+        Assert.assertNull(campaign.restore(Counter.AtomicLong, strategy));
+
+        Result result = Counter.AtomicLong.measure(strategy);
+        campaign.checkpoint(Counter.AtomicLong, result);
+
+        Result restored = campaign.restore(Counter.AtomicLong, strategy);
+        Assert.assertNotNull(restored);
+        Assert.assertArrayEquals(result.getWriteOperations(), restored.getWriteOperations());
+        Assert.assertNull(campaign.restore(Counter.LongAdder, strategy));
+        Assert.assertNull(campaign.restore(Counter.AtomicLong, strategy.withThreads(1, 2)));
+
+        // neither is in the strategy string, but both can vary in a campaign
+        Strategy variation = Strategy.parseStrategy(new String[]{"-m", "throughput", "-d", "100", "-C", "50"}).get();
+        Strategy jvmArgs = Strategy.parseStrategy(
+                new String[]{"-m", "throughput", "-d", "100", "--jvm-args=-Xmx1g"}).get();
+        Assert.assertEquals(strategy.toString(), variation.toString());
+        Assert.assertNull(campaign.restore(Counter.AtomicLong, variation));
+        Assert.assertNull(campaign.restore(Counter.AtomicLong, jvmArgs));
+    }
+}
@@ -0,0 +1,70 @@
+package xyz.supercoder.locksbenchmark;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+
+public class ContentionTest {
+    @Test
+    public void testFastPath() {
+        Contention contention = new Contention();
+
+        ReentrantLock lock = new ReentrantLock(true);
+        contention.acquire(lock);
+        lock.unlock();
+
+        SpinLock spinLock = new MCSLock();
+        contention.acquire(spinLock);
+        spinLock.unlock();
+
+        StampedLock stampedLock = new StampedLock();
+        stampedLock.unlockRead(contention.acquireRead(stampedLock));
+        stampedLock.unlockWrite(contention.acquireWrite(stampedLock));
+
+        AtomicLong value = new AtomicLong();
+        contention.casAdd(value, 1);
+
+        Assert.assertEquals(1, value.get());
+        Assert.assertEquals(4, contention.getFastAcquisitions());
+        Assert.assertEquals(0, contention.getSlowAcquisitions());
+        Assert.assertEquals(0, contention.getCasRetries());
+    }
+
+    @Test
+    public void testSlowPath() throws InterruptedException {
+        ReentrantLock lock = new ReentrantLock();
+        CountDownLatch locked = new CountDownLatch(1);
+        Thread owner = new Thread(() -> {
+            lock.lock();
+            try {
+                locked.countDown();
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                lock.unlock();
+            }
+        });
+        owner.start();
+        locked.await();
+
+        Contention contention = new Contention();
+        contention.acquire(lock);
+        lock.unlock();
+        owner.join();
+
+        Assert.assertEquals(0, contention.getFastAcquisitions());
+        Assert.assertEquals(1, contention.getSlowAcquisitions());
+        Assert.assertTrue(contention.getWaitTime() > 0);
+
+        Contention total = new Contention();
+        total.merge(contention);
+        total.merge(contention);
+        Assert.assertEquals(2, total.getSlowAcquisitions());
+        Assert.assertTrue(total.toString().startsWith("cas retries=0, validate failures=0, fast path=0.0% of 2"));
+    }
+}
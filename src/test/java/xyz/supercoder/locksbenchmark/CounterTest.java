@@ -1,8 +1,21 @@
 package xyz.supercoder.locksbenchmark;
 
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
 public class CounterTest {
     @Test
     public void testReset() {
@@ -21,6 +34,48 @@ public class CounterTest {
         }
     }
 
+    @Test
+    public void testAdd() {
+        for (Counter counter : Counter.values()) {
+            counter.reset();
+            counter.add(5);
+            counter.add(-2);
+            Assert.assertEquals(counter.name(), 3, counter.get());
+        }
+    }
+
+    @Test
+    public void testBatched() {
+        Optional<Strategy> strategy = Strategy.parseStrategy(new String[]{"-m", "throughput", "-d", "100", "-b", "16"});
+        Assert.assertTrue(strategy.isPresent());
+
+        // the writer publishes the rest of its batch at the end, so the last round is complete
+        Result result = Counter.LongAdder.measure(strategy.get());
+        long[] writeOperations = result.getWriteOperations();
+        Assert.assertEquals(writeOperations[writeOperations.length - 1], Counter.LongAdder.get());
+        Assert.assertTrue(result.getPublishInterval() > 0);
+    }
+
+    @Test
+    public void testSeries() {
+        Optional<Strategy> strategy = Strategy.parseStrategy(new String[]{"-m", "throughput", "-d", "200", "-i", "10"});
+        Assert.assertTrue(strategy.isPresent());
+
+        Result result = Counter.AtomicLong.measure(strategy.get());
+        for (long[] throughputs : result.getSeries()) {
+            Assert.assertTrue(throughputs.length >= 5);
+            Assert.assertTrue(Arrays.stream(throughputs).sum() > 0);
+        }
+
+        // a round which slows down by half is not steady, whatever its noise
+        Result steadiness = new Result("Series", strategy.get());
+        steadiness.recordSeries(0, new long[]{1000, 900, 1100, 1000, 1000, 1000});
+        steadiness.recordSeries(1, new long[]{1000, 1000, 800, 600, 500, 500});
+        Assert.assertTrue(steadiness.isSteady(0));
+        Assert.assertFalse(steadiness.isSteady(1));
+        Assert.assertTrue(steadiness.isSteady(2));
+    }
+
     @Test
     public void testBenchmark() {
         for (Counter counter : Counter.values()) {
@@ -29,4 +84,184 @@ public class CounterTest {
             break; // just test if the mechanism can work
         }
     }
+
+    @Test
+    public void testThroughput() {
+        Optional<Strategy> strategy = Strategy.parseStrategy(new String[]{"-m", "throughput", "-d", "100"});
+        Assert.assertTrue(strategy.isPresent());
+
+        Result result = Counter.AtomicLong.measure(strategy.get());
+        Assert.assertTrue(result.getReadThroughput() > 0);
+        Assert.assertTrue(result.getWriteThroughput() > 0);
+    }
+
+    @Test
+    public void testMixed() {
+        Optional<Strategy> strategy = Strategy.parseStrategy(new String[]{"-m", "mixed", "-d", "100", "-p", "0.9"});
+        Assert.assertTrue(strategy.isPresent());
+
+        Result result = Counter.StampedLock.measure(strategy.get());
+        Assert.assertTrue(result.getReadThroughput() > result.getWriteThroughput());
+        Assert.assertTrue(result.getWriteThroughput() > 0);
+    }
+
+    @Test
+    public void testOpenLoop() {
+        Optional<Strategy> strategy = Strategy.parseStrategy(new String[]{"-m", "openloop", "-d", "100", "-a", "1000"});
+        Assert.assertTrue(strategy.isPresent());
+
+        // every scheduled increment() is recorded, about 100 per writer in 100ms
+        Result result = Counter.AtomicLong.measure(strategy.get());
+        Assert.assertTrue(result.getWriteLatency().getTotalCount() > 0);
+        Assert.assertTrue(result.getWriteThroughput() <= 1000 * strategy.get().getWriterThreads() * 2);
+    }
+
+    @Test
+    public void testFork() {
+        Optional<Strategy> strategy = Strategy.parseStrategy(
+                new String[]{"-m", "throughput", "-d", "100", "-l", "10", "-f", "rounds", "--jvm-args=-Xmx64m"});
+        Assert.assertTrue(strategy.isPresent());
+
+        // every round comes from a JVM of its own
+        Result result = ForkedJvm.measure(Counter.AtomicLong, strategy.get());
+        Assert.assertEquals(strategy.get().getRounds(), result.getRounds());
+        Assert.assertTrue(Arrays.stream(result.getWriteOperations()).allMatch(operations -> operations > 0));
+        Assert.assertTrue(result.getWriteLatency().getTotalCount() > 0);
+    }
+
+    @Test
+    public void testEvents() throws IOException {
+        // the recorders are only built on java11 or later
+        Assume.assumeTrue(FlightRecording.isAvailable());
+
+        Path directory = Files.createTempDirectory("locksbenchmark-test-");
+        Optional<Strategy> strategy = Strategy.parseStrategy(
+                new String[]{"-m", "throughput", "-d", "100", "-w", "2", "-E", directory.toString()});
+        Assert.assertTrue(strategy.isPresent());
+        Assert.assertTrue(strategy.get().isRecordingEvents());
+
+        // the recording is kept, and its events are summarized per round
+        Result result = Counter.Synchronized.measure(strategy.get());
+        Assert.assertEquals(strategy.get().getRounds(), result.getRoundEvents().length);
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> recordings = files.collect(Collectors.toList());
+            Assert.assertEquals(1, recordings.size());
+            Assert.assertTrue(recordings.get(0).getFileName().toString().startsWith("Synchronized-"));
+            Assert.assertTrue(Files.size(recordings.get(0)) > 0);
+            for (Path recording : recordings) {
+                Files.delete(recording);
+            }
+        }
+
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testLatency() {
+        Optional<Strategy> strategy = Strategy.parseStrategy(new String[]{"-m", "throughput", "-d", "100", "-l", "10"});
+        Assert.assertTrue(strategy.isPresent());
+
+        Result result = Counter.Synchronized.measure(strategy.get());
+        Assert.assertTrue(result.getReadLatency().getTotalCount() > 0);
+        Assert.assertTrue(result.getWriteLatency().getTotalCount() > 0);
+    }
+
+    @Test
+    public void testConcurrentIncrement() throws InterruptedException {
+        Counter[] counters = {Counter.PaddedAtomicLong, Counter.StripedAtomicLongArray, Counter.Adaptive,
+                Counter.ThreadLocalSlots, Counter.FlatCombining, Counter.Delegation,
+                Counter.PackedSlots, Counter.Padded64Slots, Counter.Padded128Slots, Counter.TASLock, Counter.TTASLock, Counter.TicketLock, Counter.MCSLock, Counter.CLHLock};
+        for (Counter counter : counters) {
+            counter.reset();
+
+            ExecutorService executorService = Executors.newFixedThreadPool(4);
+            for (int i = 0; i < 4; i++) {
+                executorService.submit(() -> {
+                    for (int j = 0; j < 10000; j++) {
+                        counter.increment();
+                    }
+                });
+            }
+
+            executorService.shutdown();
+            Assert.assertTrue(executorService.awaitTermination(1, TimeUnit.MINUTES));
+            Assert.assertEquals(counter.name(), 40000, counter.get());
+        }
+    }
+
+    @Test
+    public void testAdaptive() throws InterruptedException {
+        AdaptiveLong value = new AdaptiveLong();
+        value.add(5);
+        value.inflate();
+        value.add(2);
+        Assert.assertTrue(value.isInflated());
+        Assert.assertEquals(7, value.get());
+
+        value.fold();
+        Assert.assertFalse(value.isInflated());
+        Assert.assertEquals(7, value.get());
+
+        // inflate and fold all the time, get() never misses a completed add() nor counts one twice
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; i++) {
+            executorService.submit(() -> {
+                for (int j = 0; j < 100000; j++) {
+                    value.add(1);
+                }
+            });
+        }
+
+        executorService.shutdown();
+        long last = value.get();
+        while (!executorService.isTerminated()) {
+            value.inflate();
+            long inflated = value.get();
+            value.fold();
+            long folded = value.get();
+            Assert.assertTrue(last <= inflated && inflated <= folded);
+            last = folded;
+        }
+
+        Assert.assertEquals(400007, value.get());
+        Assert.assertTrue(value.getFolds() > 0);
+    }
+
+    @Test
+    public void testWorkload() {
+        for (WorkloadType type : WorkloadType.values()) {
+            Workload workload = type.create(16);
+            workload.write();
+            Workload.consume(workload.read());
+        }
+
+        Optional<Strategy> strategy = Strategy.parseStrategy(
+                new String[]{"-m", "throughput", "-d", "100", "-k", "map", "-K", "64"});
+        Assert.assertTrue(strategy.isPresent());
+
+        Result result = Counter.RWLock.measure(strategy.get());
+        Assert.assertTrue(result.getWriteThroughput() > 0);
+        Assert.assertSame(Workload.NONE, Counter.RWLock.workload);
+    }
+
+    @Test
+    public void testRecordWorkload() {
+        // a copy is written without touching its original
+        Workload record = WorkloadType.Record.create(8);
+        Workload copy = record.copy();
+        copy.write();
+        Assert.assertEquals(0, record.checked(record.read()));
+        Assert.assertEquals(1, copy.checked(copy.read()));
+        Assert.assertEquals(0, record.getTornReads());
+
+        Optional<Strategy> strategy = Strategy.parseStrategy(
+                new String[]{"-m", "throughput", "-d", "100", "-k", "record", "-K", "64"});
+        Assert.assertTrue(strategy.isPresent());
+
+        for (Counter counter : new Counter[]{Counter.OptimisticStampedLock, Counter.RWLock, Counter.CopyOnWrite}) {
+            Result result = counter.measure(strategy.get());
+            Assert.assertTrue(counter.name(), result.getReadThroughput() > 0);
+            Assert.assertEquals(counter.name(), 0, result.getTornReads());
+        }
+    }
 }
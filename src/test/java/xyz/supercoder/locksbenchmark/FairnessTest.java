@@ -0,0 +1,46 @@
+package xyz.supercoder.locksbenchmark;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Optional;
+
+public class FairnessTest {
+    @Test
+    public void testFairness() {
+        Fairness fairness = new Fairness(2);
+        fairness.record(0, new long[]{100, 100, 100, 100}, 10);
+        fairness.record(1, new long[]{400, 0, 0, 0}, 30);
+
+        // equal threads score 1, a single busy thread 1/n
+        Assert.assertEquals(1.0, Fairness.jainIndex(new long[]{100, 100, 100, 100}), 1e-9);
+        Assert.assertEquals(0.25, Fairness.jainIndex(new long[]{400, 0, 0, 0}), 1e-9);
+        Assert.assertEquals(0.5, Fairness.minMaxRatio(new long[]{50, 100}), 1e-9);
+        Assert.assertEquals(0.625, fairness.getJainIndex(), 1e-9);
+        Assert.assertEquals(0.5, fairness.getMinMaxRatio(), 1e-9);
+        Assert.assertEquals(30, fairness.getLongestGap());
+        Assert.assertEquals("min/max=0.500, jain=0.625, longest gap(ns)=30", fairness.toString());
+    }
+
+    @Test
+    public void testUntrackedGaps() {
+        Fairness fairness = new Fairness(1);
+        fairness.record(0, new long[]{0, 0}, -1);
+
+        Assert.assertEquals(1.0, fairness.getJainIndex(), 1e-9);
+        Assert.assertEquals(-1, fairness.getLongestGap());
+        Assert.assertEquals("min/max=1.000, jain=1.000", fairness.toString());
+    }
+
+    @Test
+    public void testMeasure() {
+        Optional<Strategy> strategy = Strategy.parseStrategy(
+                new String[]{"-m", "throughput", "-d", "100", "-r", "2", "-w", "2", "-g"});
+        Assert.assertTrue(strategy.isPresent());
+
+        Result result = Counter.FairReentrantLock.measure(strategy.get());
+        Assert.assertEquals(2, result.getFairness().get("readers").getOperations(0).length);
+        Assert.assertEquals(2, result.getFairness().get("writers").getOperations(0).length);
+        Assert.assertTrue(result.getFairness().get("writers").getLongestGap() > 0);
+    }
+}
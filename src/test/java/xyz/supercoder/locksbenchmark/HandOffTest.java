@@ -0,0 +1,92 @@
+package xyz.supercoder.locksbenchmark;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+public class HandOffTest {
+
+    @Test
+    public void testRingBuffer() {
+        RingBuffer buffer = new RingBuffer(4);
+        Assert.assertEquals(RingBuffer.EMPTY, buffer.poll());
+
+        // it wraps around several times, the items come out in order
+        for (long lap = 0; lap < 3; lap++) {
+            for (long i = 0; i < 4; i++) {
+                Assert.assertTrue(buffer.offer(lap * 4 + i));
+            }
+
+            Assert.assertFalse(buffer.offer(-1));
+            for (long i = 0; i < 4; i++) {
+                Assert.assertEquals(lap * 4 + i, buffer.poll());
+            }
+
+            Assert.assertEquals(RingBuffer.EMPTY, buffer.poll());
+        }
+    }
+
+    @Test
+    public void testHandOff() throws InterruptedException {
+        // every queue takes at most its capacity, and gives back what it took in order
+        for (HandOff handOff : HandOff.values()) {
+            handOff.reset();
+            if (handOff == HandOff.LinkedTransferQueue) {
+                Assert.assertFalse(handOff.name(), handOff.offer(1));
+                continue;
+            }
+
+            for (int i = 0; i < HandOff.CAPACITY; i++) {
+                Assert.assertTrue(handOff.name(), handOff.offer(i + 1));
+            }
+
+            Assert.assertFalse(handOff.name(), handOff.offer(-1));
+            for (int i = 0; i < HandOff.CAPACITY; i++) {
+                Assert.assertEquals(handOff.name(), i + 1, handOff.poll());
+            }
+
+            Assert.assertEquals(handOff.name(), HandOff.EMPTY, handOff.poll());
+        }
+    }
+
+    @Test
+    public void testMeasure() {
+        Strategy strategy = Strategy.parseStrategy(
+                new String[]{"-H", "all", "-m", "throughput", "-d", "100", "-r", "2", "-w", "2", "-l", "4"}).get();
+        Assert.assertEquals(Arrays.asList(HandOff.values()), strategy.getHandOffs());
+
+        for (HandOff handOff : HandOff.values()) {
+            Result result = handOff.measure(strategy);
+
+            // a consumer can only take what was produced, the rest is left in the queue at the end
+            long consumed = Arrays.stream(result.getReadOperations()).sum();
+            long produced = Arrays.stream(result.getWriteOperations()).sum();
+            Assert.assertTrue(handOff.name(), consumed > 0 && consumed <= produced);
+            Assert.assertTrue(handOff.name(), result.getReadLatency().getTotalCount() > 0);
+            Assert.assertTrue(result.getFairness().containsKey("consumers"));
+        }
+    }
+
+    @Test
+    public void testHandOffStrategy() {
+        Optional<Strategy> optionalStrategy = Strategy.parseStrategy(
+                new String[]{"-m", "throughput", "-H", "ringbuffer, ArrayBlockingQueue"});
+
+        Assert.assertTrue(optionalStrategy.isPresent());
+
+        Strategy strategy = optionalStrategy.get();
+        Assert.assertTrue(strategy.isHandOff());
+        Assert.assertEquals(Arrays.asList(HandOff.ArrayBlockingQueue, HandOff.RingBuffer), strategy.getHandOffs());
+        Assert.assertTrue(strategy.toString().endsWith(", hand-off: arrayblockingqueue, ringbuffer"));
+        Assert.assertFalse(new Strategy().isHandOff());
+
+        // the consumers never reach a target, and mixed threads have no side
+        Assert.assertFalse(Strategy.parseStrategy(new String[]{"-H", "all"}).isPresent());
+        Assert.assertFalse(Strategy.parseStrategy(new String[]{"-m", "mixed", "-H", "all"}).isPresent());
+        Assert.assertFalse(Strategy.parseStrategy(new String[]{"-H", "all", "-m", "mixed"}).isPresent());
+        Assert.assertTrue(Strategy.parseStrategy(new String[]{"-H", "all", "-m", "throughput"}).isPresent());
+        Assert.assertFalse(Strategy.parseStrategy(new String[]{"-m", "throughput", "-H", "deque"}).isPresent());
+    }
+}
@@ -0,0 +1,37 @@
+package xyz.supercoder.locksbenchmark;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class HarnessTest {
+
+    @Test(timeout = 10000)
+    public void testWorkerSurvivesError() throws InterruptedException {
+        try (Harness harness = new Harness()) {
+            // the task finishes its round, then dies with an error like a failed assertion
+            Round failing = new Round(1);
+            harness.execute(new Runnable[]{() -> {
+                failing.arrive();
+                failing.finish();
+                throw new AssertionError("expected by the test");
+            }});
+            failing.start();
+            failing.awaitFinished();
+
+            // the next round on the same worker must start, not wait for a dead thread
+            AtomicInteger runs = new AtomicInteger();
+            Round next = new Round(1);
+            harness.execute(new Runnable[]{() -> {
+                next.arrive();
+                runs.incrementAndGet();
+                next.finish();
+            }});
+            next.start();
+            next.awaitFinished();
+            Assert.assertEquals(1, runs.get());
+            Assert.assertEquals(1, harness.getThreads());
+        }
+    }
+}
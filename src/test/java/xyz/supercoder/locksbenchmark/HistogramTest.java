@@ -0,0 +1,48 @@
+package xyz.supercoder.locksbenchmark;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HistogramTest {
+    @Test
+    public void testBuckets() {
+        for (long value = 0; value < 100000; value++) {
+            long highest = Histogram.highestValueOf(Histogram.indexOf(value));
+            Assert.assertTrue(highest >= value);
+            Assert.assertTrue(highest - value <= value / 16);
+        }
+
+        Assert.assertEquals(Long.MAX_VALUE, Histogram.highestValueOf(Histogram.indexOf(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void testPercentile() {
+        Histogram histogram = new Histogram();
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value);
+        }
+
+        Assert.assertEquals(1000, histogram.getTotalCount());
+        Assert.assertEquals(1000, histogram.getMax());
+        Assert.assertEquals(500, histogram.getPercentile(50), 500 / 16);
+        Assert.assertEquals(990, histogram.getPercentile(99), 990 / 16);
+        Assert.assertEquals(1000, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void testMerge() {
+        Histogram first = new Histogram();
+        Histogram second = new Histogram();
+        first.record(10);
+        second.record(20000);
+
+        first.merge(second);
+        Assert.assertEquals(2, first.getTotalCount());
+        Assert.assertEquals(20000, first.getMax());
+        Assert.assertEquals(10, first.getPercentile(50));
+
+        first.reset();
+        Assert.assertEquals(0, first.getTotalCount());
+        Assert.assertEquals(0, first.getPercentile(50));
+    }
+}
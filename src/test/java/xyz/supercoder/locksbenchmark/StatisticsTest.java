@@ -0,0 +1,44 @@
+package xyz.supercoder.locksbenchmark;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StatisticsTest {
+    @Test
+    public void testStatistics() {
+        Statistics statistics = Statistics.of(new long[]{2, 4, 4, 4, 5, 5, 7, 9});
+
+        Assert.assertEquals(8, statistics.getCount());
+        Assert.assertEquals(5.0, statistics.getMean(), 1e-9);
+        Assert.assertEquals(2.138, statistics.getStandardDeviation(), 1e-3);
+        Assert.assertEquals(4.5, statistics.getMedian(), 1e-9);
+        Assert.assertEquals(3.499 * 2.138 / Math.sqrt(8), statistics.getConfidenceInterval(), 1e-3);
+        Assert.assertEquals(0.4276, statistics.getCoefficientOfVariation(), 1e-3);
+        Assert.assertTrue(statistics.isUnstable(0.05));
+        Assert.assertFalse(statistics.isUnstable(0.5));
+    }
+
+    @Test
+    public void testSingleValue() {
+        Statistics statistics = Statistics.of(new long[]{42});
+
+        Assert.assertEquals(42.0, statistics.getMean(), 1e-9);
+        Assert.assertEquals(42.0, statistics.getMedian(), 1e-9);
+        Assert.assertEquals(0.0, statistics.getStandardDeviation(), 1e-9);
+        Assert.assertEquals(0.0, statistics.getConfidenceInterval(), 1e-9);
+        Assert.assertFalse(statistics.isUnstable(0.05));
+    }
+
+    @Test
+    public void testQuantile() {
+        Assert.assertEquals(63.657, Statistics.quantile(1), 1e-9);
+        Assert.assertEquals(2.744, Statistics.quantile(31), 1e-9);
+        Assert.assertEquals(2.704, Statistics.quantile(40), 1e-9);
+
+        // between the tabulated values the next smaller df is taken
+        Assert.assertEquals(2.704, Statistics.quantile(59), 1e-9);
+        Assert.assertEquals(2.660, Statistics.quantile(119), 1e-9);
+        Assert.assertEquals(2.617, Statistics.quantile(120), 1e-9);
+        Assert.assertEquals(2.617, Statistics.quantile(1000), 1e-9);
+    }
+}
@@ -3,6 +3,7 @@ package xyz.supercoder.locksbenchmark;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.Optional;
 
 public class StrategyTest {
@@ -57,4 +58,173 @@ public class StrategyTest {
         Assert.assertEquals("Reader threads: 5, writer threads: 5, rounds: 20, target value: 100000",
                 optionalStrategy.get().toString());
     }
+
+    @Test
+    public void testThroughputStrategy() {
+        String[] args = {"-m", "throughput", "-d", "200"};
+        Optional<Strategy> optionalStrategy = Strategy.parseStrategy(args);
+
+        Assert.assertTrue(optionalStrategy.isPresent());
+
+        Strategy strategy = optionalStrategy.get();
+        Assert.assertEquals(Mode.Throughput, strategy.getMode());
+        Assert.assertEquals(200, strategy.getDuration());
+        Assert.assertEquals("Reader threads: 1, writer threads: 1, rounds: 5, mode: throughput, duration(ms): 200",
+                strategy.toString());
+    }
+
+    @Test
+    public void testInvalidMode() {
+        String[] args = {"-m", "latency"};
+        Optional<Strategy> optionalStrategy = Strategy.parseStrategy(args);
+
+        Assert.assertFalse(optionalStrategy.isPresent());
+    }
+
+    @Test
+    public void testSweepStrategy() {
+        String[] args = {"-S", "writers", "-T", "8", "-r", "2"};
+        Optional<Strategy> optionalStrategy = Strategy.parseStrategy(args);
+
+        Assert.assertTrue(optionalStrategy.isPresent());
+
+        Strategy strategy = optionalStrategy.get();
+        Assert.assertEquals(Sweep.Writers, strategy.getSweep());
+        Assert.assertEquals(8, strategy.getMaxThreads());
+
+        Strategy step = strategy.getSweep().apply(strategy, 4);
+        Assert.assertEquals(2, step.getReaderThreads());
+        Assert.assertEquals(4, step.getWriterThreads());
+        Assert.assertEquals(1, strategy.getWriterThreads());
+    }
+
+    @Test
+    public void testWarmupStrategy() {
+        String[] args = {"-W", "3", "-C", "10"};
+        Optional<Strategy> optionalStrategy = Strategy.parseStrategy(args);
+
+        Assert.assertTrue(optionalStrategy.isPresent());
+
+        Strategy strategy = optionalStrategy.get();
+        Assert.assertEquals(3, strategy.getWarmupRounds());
+        Assert.assertEquals(10, strategy.getMaxVariation());
+        Assert.assertEquals("Reader threads: 1, writer threads: 1, rounds: 5, warmup rounds: 3, target value: 1000000",
+                strategy.toString());
+    }
+
+    @Test
+    public void testWorkloadStrategy() {
+        String[] args = {"-k", "busy", "-K", "10, 100,1000"};
+        Optional<Strategy> optionalStrategy = Strategy.parseStrategy(args);
+
+        Assert.assertTrue(optionalStrategy.isPresent());
+
+        Strategy strategy = optionalStrategy.get();
+        Assert.assertEquals(WorkloadType.Busy, strategy.getWorkload());
+        Assert.assertArrayEquals(new int[]{10, 100, 1000}, strategy.getWorkloadSizes());
+        Assert.assertEquals(100, strategy.withWorkloadSize(100).getWorkloadSize());
+        Assert.assertFalse(Strategy.parseStrategy(new String[]{"-k", "busy", "-K", "0"}).isPresent());
+    }
+
+    @Test
+    public void testMixedStrategy() {
+        String[] args = {"-m", "mixed", "-n", "4", "-p", "0.5, 0.95", "-d", "200"};
+        Optional<Strategy> optionalStrategy = Strategy.parseStrategy(args);
+
+        Assert.assertTrue(optionalStrategy.isPresent());
+
+        Strategy strategy = optionalStrategy.get();
+        Assert.assertEquals(Mode.Mixed, strategy.getMode());
+        Assert.assertEquals(4, strategy.getTotalThreads());
+        Assert.assertArrayEquals(new double[]{0.5, 0.95}, strategy.getReadRatios(), 0);
+        Assert.assertEquals(0.95, strategy.withReadRatio(0.95).getReadRatio(), 0);
+        Assert.assertEquals("Mixed threads: 4, read ratio: 0.5, 0.95, rounds: 5, mode: mixed, duration(ms): 200",
+                strategy.toString());
+        Assert.assertFalse(Strategy.parseStrategy(new String[]{"-m", "mixed", "-p", "1.5"}).isPresent());
+    }
+
+    @Test
+    public void testOpenLoopStrategy() {
+        String[] args = {"-m", "openloop", "-a", "1000, 10000", "-d", "200"};
+        Optional<Strategy> optionalStrategy = Strategy.parseStrategy(args);
+
+        Assert.assertTrue(optionalStrategy.isPresent());
+
+        Strategy strategy = optionalStrategy.get();
+        Assert.assertEquals(Mode.OpenLoop, strategy.getMode());
+        Assert.assertArrayEquals(new long[]{1000, 10000}, strategy.getRates());
+        Assert.assertEquals(10000, strategy.withRate(10000).getRate());
+        Assert.assertTrue(strategy.toString().endsWith(
+                "mode: openloop, duration(ms): 200, rate(ops/s per writer): 1000, 10000"));
+        Assert.assertFalse(Strategy.parseStrategy(new String[]{"-m", "openloop", "-a", "0"}).isPresent());
+    }
+
+    @Test
+    public void testBatchStrategy() {
+        Optional<Strategy> optionalStrategy = Strategy.parseStrategy(new String[]{"-b", "1, 16, 256"});
+
+        Assert.assertTrue(optionalStrategy.isPresent());
+
+        Strategy strategy = optionalStrategy.get();
+        Assert.assertEquals(1, strategy.getBatchSize());
+        Assert.assertArrayEquals(new int[]{1, 16, 256}, strategy.getBatchSizes());
+        Assert.assertEquals(16, strategy.withBatchSize(16).getBatchSize());
+        Assert.assertTrue(strategy.toString().endsWith(", batch: 1, 16, 256"));
+        Assert.assertFalse(new Strategy().toString().contains("batch"));
+        Assert.assertFalse(Strategy.parseStrategy(new String[]{"-b", "0"}).isPresent());
+    }
+
+    @Test
+    public void testEventsStrategy() {
+        Optional<Strategy> optionalStrategy = Strategy.parseStrategy(new String[]{"-e"});
+        Assert.assertFalse(new Strategy().isRecordingEvents());
+
+        // the recorders are only built on java11 or later, without them the option is rejected
+        Assert.assertEquals(FlightRecording.isAvailable(), optionalStrategy.isPresent());
+        optionalStrategy.ifPresent(strategy -> {
+            Assert.assertTrue(strategy.isRecordingEvents());
+            Assert.assertNull(strategy.getJfrDirectory());
+            Assert.assertTrue(strategy.toString().endsWith(", runtime events"));
+        });
+    }
+
+    @Test
+    public void testForkStrategy() {
+        Optional<Strategy> optionalStrategy = Strategy.parseStrategy(
+                new String[]{"-f", "counters", "-j", " -Xmx1g  -XX:+UseParallelGC"});
+
+        Assert.assertTrue(optionalStrategy.isPresent());
+
+        Strategy strategy = optionalStrategy.get();
+        Assert.assertEquals(Fork.Counters, strategy.getFork());
+        Assert.assertEquals(Arrays.asList("-Xmx1g", "-XX:+UseParallelGC"), strategy.getJvmArgs());
+        Assert.assertTrue(strategy.toString().endsWith(", fork: counters with -Xmx1g -XX:+UseParallelGC"));
+        Assert.assertEquals(Fork.None, new Strategy().getFork());
+        Assert.assertFalse(Strategy.parseStrategy(new String[]{"-f", "threads"}).isPresent());
+    }
+
+    @Test
+    public void testCountersStrategy() {
+        Optional<Strategy> optionalStrategy = Strategy.parseStrategy(
+                new String[]{"-c", "padded128slots, PackedSlots,packedslots"});
+
+        Assert.assertTrue(optionalStrategy.isPresent());
+
+        // the counters are measured in the order of their declaration
+        Strategy strategy = optionalStrategy.get();
+        Assert.assertEquals(Arrays.asList(Counter.PackedSlots, Counter.Padded128Slots), strategy.getCounters());
+        Assert.assertTrue(strategy.toString().endsWith(", counters: packedslots, padded128slots"));
+        Assert.assertEquals(Arrays.asList(Counter.values()), new Strategy().getCounters());
+        Assert.assertFalse(Strategy.parseStrategy(new String[]{"-c", "falsesharing"}).isPresent());
+    }
+
+    @Test
+    public void testVirtualStrategy() {
+        Optional<Strategy> optionalStrategy = Strategy.parseStrategy(new String[]{"-V", "-r", "100"});
+
+        // virtual threads need java21, before it the option is rejected
+        Assert.assertEquals(VirtualThreads.isAvailable(), optionalStrategy.isPresent());
+        optionalStrategy.ifPresent(strategy -> Assert.assertTrue(strategy.isVirtual()));
+        Assert.assertFalse(new Strategy().isVirtual());
+    }
 }